@@ -0,0 +1,75 @@
+package com.xgileit.learning.student.benchmark;
+
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.service.AdminService;
+import com.xgileit.learning.student.service.ClassroomService;
+import com.xgileit.learning.student.service.Paging;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ClassroomService's attendance filtering, with half of the students in class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AttendanceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private ClassroomService classroomService;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        context = BenchmarkContext.start("attendance");
+        classroomService = context.getBean(ClassroomService.class);
+        AdminService adminService = context.getBean(AdminService.class);
+
+        List<Long> attending = new ArrayList<>();
+        for(int registered = 0; registered < size; registered += 10_000)
+        {
+            List<Student> students = adminService.registerStudents(
+                    BenchmarkContext.students(Math.min(10_000, size - registered)));
+            for(int i = 0; i < students.size(); i += 2)
+            {
+                attending.add(students.get(i).getId());
+            }
+        }
+        classroomService.updateStatus(attending, Status.IN_CLASS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Student> studentsAttendingClass()
+    {
+        return classroomService.studentsAttendingClass();
+    }
+
+    @Benchmark
+    public List<Student> studentsNotAttendingClass()
+    {
+        return classroomService.studentsNotAttendingClass();
+    }
+
+    @Benchmark
+    public List<Student> studentsAttendingClassFirstPage()
+    {
+        return classroomService.studentsAttendingClass(0, Paging.DEFAULT_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,119 @@
+package com.xgileit.learning.student.benchmark;
+
+import com.xgileit.learning.student.StudentManagementServiceApplication;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.model.Teacher;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class starts the application against an embedded H2 database for the benchmarks and
+ * creates the test data they use.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext(){}
+
+    /**
+     * The settings are passed as command line arguments, so they override the MySQL settings in
+     * application.properties.
+     *
+     * @param database name of the in memory H2 database
+     * @return started application without the web server
+     */
+    static ConfigurableApplicationContext start(String database)
+    {
+        return start(database, WebApplicationType.NONE);
+    }
+
+    /**
+     * @param database name of the in memory H2 database
+     * @param webApplicationType NONE, or SERVLET to start Tomcat as well
+     * @param arguments extra settings, for example "--server.port=0"
+     * @return started application
+     */
+    static ConfigurableApplicationContext start(String database, WebApplicationType webApplicationType,
+                                                String... arguments)
+    {
+        return start("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1", database, webApplicationType, arguments);
+    }
+
+    /**
+     * Same as start(database), but the database is kept in a new file under target/benchmark, so
+     * the space used by the tables and indexes can be measured (H2's disk_space_used is always 0
+     * for an in memory database).
+     *
+     * @param database name of the H2 database file
+     * @param arguments extra settings
+     * @return started application without the web server
+     */
+    static ConfigurableApplicationContext startOnDisk(String database, String... arguments) throws IOException
+    {
+        Path file = Path.of("target", "benchmark", database + ".mv.db").toAbsolutePath();
+        Files.createDirectories(file.getParent());
+        Files.deleteIfExists(file);
+
+        String url = "jdbc:h2:file:" + file.getParent().resolve(database) + ";DB_CLOSE_ON_EXIT=FALSE";
+        return start(url, database, WebApplicationType.NONE, arguments);
+    }
+
+    private static ConfigurableApplicationContext start(String url, String database,
+                                                        WebApplicationType webApplicationType, String... arguments)
+    {
+        List<String> settings = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.r2dbc.url=r2dbc:h2:mem:///" + database + ";DB_CLOSE_DELAY=-1",
+                "--spring.r2dbc.username=sa",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        settings.addAll(List.of(arguments));
+
+        return new SpringApplicationBuilder(StudentManagementServiceApplication.class)
+                .web(webApplicationType)
+                .logStartupInfo(false)
+                .run(settings.toArray(new String[0]));
+    }
+
+    /**
+     * @param count number of students
+     * @return new (not yet registered) students
+     */
+    static List<Student> students(int count)
+    {
+        List<Student> students = new ArrayList<>(count);
+        for(int i = 0; i < count; i++)
+        {
+            students.add(new Student("Name" + i, "Surname" + i, i + " Main Road",
+                    "student" + i + "@school.com", "0821234567"));
+        }
+
+        return students;
+    }
+
+    /**
+     * @param count number of teachers
+     * @return new (not yet employed) teachers
+     */
+    static List<Teacher> teachers(int count)
+    {
+        List<Teacher> teachers = new ArrayList<>(count);
+        for(int i = 0; i < count; i++)
+        {
+            teachers.add(new Teacher("Name" + i, "Surname" + i, i + " Main Road",
+                    "teacher" + i + "@school.com", "0821234567"));
+        }
+
+        return teachers;
+    }
+}
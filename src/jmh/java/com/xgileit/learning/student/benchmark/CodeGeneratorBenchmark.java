@@ -0,0 +1,75 @@
+package com.xgileit.learning.student.benchmark;
+
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.service.AdminService;
+import com.xgileit.learning.student.service.CodeGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the random (version 4) and time ordered (version 7) codes (see CodeGenerator). The
+ * codes are created on 4 threads at once, and students are registered in bulk into a table whose
+ * unique code index keeps growing. Both are reported per second.
+ *
+ * The database is kept in a file, so the size of the student table and it's indexes can be
+ * printed at the end of every trial. On MySQL random codes split InnoDB index pages all over the
+ * code index and leave them half empty, H2 rewrites every page it changes, so the sizes are close
+ * there. On MySQL the size of the code index alone is in mysql.innodb_index_stats (index_name
+ * 'uk_student_code', stat_name 'size', in pages).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CodeGeneratorBenchmark {
+
+    private static final int BULK_SIZE = 1000;
+
+    @Param({"random", "time-ordered"})
+    public String generator;
+
+    private ConfigurableApplicationContext context;
+    private CodeGenerator codeGenerator;
+    private AdminService adminService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        context = BenchmarkContext.startOnDisk("codes-" + generator, "--codes.generator=" + generator);
+        codeGenerator = context.getBean(CodeGenerator.class);
+        adminService = context.getBean(AdminService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long students = jdbcTemplate.queryForObject("select count(*) from student", Long.class);
+        Long bytes = jdbcTemplate.queryForObject("call disk_space_used('STUDENT')", Long.class);
+        System.out.printf("%n%s codes: %d students, %d bytes (%.1f bytes per student)%n",
+                generator, students, bytes, (double) bytes / Math.max(students, 1));
+
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generate()
+    {
+        return codeGenerator.next();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public List<Student> registerStudents()
+    {
+        return adminService.registerStudents(BenchmarkContext.students(BULK_SIZE));
+    }
+}
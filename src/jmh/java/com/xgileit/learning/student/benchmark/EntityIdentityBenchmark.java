@@ -0,0 +1,64 @@
+package com.xgileit.learning.student.benchmark;
+
+import com.xgileit.learning.student.model.Classroom;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.model.Teacher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures hashCode and equals of the entities, including a Classroom with a roster of the given
+ * size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EntityIdentityBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private Student student;
+    private Student otherStudent;
+    private Classroom classroom;
+    private Classroom otherClassroom;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        student = BenchmarkContext.students(1).get(0);
+        otherStudent = BenchmarkContext.students(1).get(0);
+
+        Teacher teacher = BenchmarkContext.teachers(1).get(0);
+        classroom = new Classroom(teacher, BenchmarkContext.students(size));
+        otherClassroom = new Classroom(teacher, BenchmarkContext.students(size));
+    }
+
+    @Benchmark
+    public int studentHashCode()
+    {
+        return student.hashCode();
+    }
+
+    @Benchmark
+    public boolean studentEquals()
+    {
+        return student.equals(otherStudent);
+    }
+
+    @Benchmark
+    public int classroomHashCode()
+    {
+        return classroom.hashCode();
+    }
+
+    @Benchmark
+    public boolean classroomEquals()
+    {
+        return classroom.equals(otherClassroom);
+    }
+}
@@ -0,0 +1,91 @@
+package com.xgileit.learning.student.benchmark;
+
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.repo.StudentRepository;
+import com.xgileit.learning.student.service.AdminService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures AdminService's student registration, one student per call and in bulk. Both are
+ * reported as students registered per second, for the bulk registration that is the
+ * "students" counter. The registered students are deleted after every iteration, so the
+ * table does not keep growing by a million rows at a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RegistrationBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private AdminService adminService;
+    private StudentRepository studentRepository;
+
+    /**
+     * The students to register in bulk, created before every call so only the registration is
+     * measured. The number of students registered is reported per second next to the bulk calls.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bulk {
+
+        @Param({"1000", "100000", "1000000"})
+        private int size;
+
+        public long students;
+
+        private List<Student> batch;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            students = 0;
+        }
+
+        @Setup(Level.Invocation)
+        public void createStudents()
+        {
+            batch = BenchmarkContext.students(size);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        context = BenchmarkContext.start("registration");
+        adminService = context.getBean(AdminService.class);
+        studentRepository = context.getBean(StudentRepository.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteStudents()
+    {
+        studentRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        context.close();
+    }
+
+    @Benchmark
+    public Student registerStudent()
+    {
+        return adminService.registerStudent(new Student("Name", "Surname", "1 Main Road",
+                "student@school.com", "0821234567"));
+    }
+
+    @Benchmark
+    public List<Student> registerStudents(Bulk bulk)
+    {
+        bulk.students += bulk.size;
+        return adminService.registerStudents(bulk.batch);
+    }
+}
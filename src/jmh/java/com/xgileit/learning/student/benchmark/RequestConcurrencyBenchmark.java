@@ -0,0 +1,90 @@
+package com.xgileit.learning.student.benchmark;
+
+import com.xgileit.learning.student.service.AdminService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the web and JPA layer: every invocation sends "concurrency" requests for a page of
+ * students at the same time and waits for all of them, the score is requests per second.
+ *
+ * virtualThreads=false uses Tomcat's default pool of 200 platform threads, virtualThreads=true
+ * serves every request on a virtual thread (see VirtualThreadConfig). Both use the same connection
+ * pool, so the difference is how many requests wait on a thread and how many wait on a connection.
+ *
+ * The build is still on Java 17, where virtual threads do not exist, so only the platform thread
+ * baseline runs by default. On a Java 21 JDK the comparison is run with:
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="RequestConcurrencyBenchmark -p virtualThreads=false,true"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RequestConcurrencyBenchmark {
+
+    private static final int CONCURRENCY = 2000;
+
+    //"true" only once the build is on Java 21, see above.
+    @Param({"false"})
+    private boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        context = BenchmarkContext.start("requests", WebApplicationType.SERVLET,
+                "--server.port=0",
+                "--virtual-threads.enabled=" + virtualThreads,
+                "--spring.datasource.hikari.maximum-pool-size=20",
+                "--spring.datasource.hikari.connection-timeout=30000",
+                "--server.tomcat.max-connections=" + (CONCURRENCY * 2),
+                "--server.tomcat.accept-count=" + CONCURRENCY);
+        context.getBean(AdminService.class).registerStudents(BenchmarkContext.students(1000));
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/teacher/all?page=3&size=50"))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENCY)
+    public void listStudents()
+    {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[CONCURRENCY];
+        for(int i = 0; i < CONCURRENCY; i++)
+        {
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> {
+                        if(response.statusCode() != 200)
+                        {
+                            throw new IllegalStateException("Request failed with " + response.statusCode());
+                        }
+                    });
+        }
+
+        CompletableFuture.allOf(responses).join();
+    }
+}
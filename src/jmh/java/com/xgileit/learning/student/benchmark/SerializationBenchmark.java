@@ -0,0 +1,55 @@
+package com.xgileit.learning.student.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.model.Teacher;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Jackson serialization of the student and teacher lists returned by the listing
+ * endpoints. The JSON is written to a stream that discards it, so only the serialization is
+ * measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SerializationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    //the output is reused by every invocation, so it must not be closed after writing.
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private final OutputStream output = OutputStream.nullOutputStream();
+    private List<Student> students;
+    private List<Teacher> teachers;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        students = BenchmarkContext.students(size);
+        teachers = BenchmarkContext.teachers(size);
+    }
+
+    @Benchmark
+    public void serializeStudents() throws IOException
+    {
+        objectMapper.writeValue(output, students);
+    }
+
+    @Benchmark
+    public void serializeTeachers() throws IOException
+    {
+        objectMapper.writeValue(output, teachers);
+    }
+}
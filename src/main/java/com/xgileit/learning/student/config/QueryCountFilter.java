@@ -0,0 +1,84 @@
+package com.xgileit.learning.student.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTags;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class counts the SQL statements of every request (see QueryCounter) and records them in
+ * the http.server.requests.queries metric, tagged with the method and uri the same way
+ * http.server.requests is. A change that turns one query into a hundred shows up as a jump in the
+ * statements per request of that endpoint.
+ *
+ * query-count.sample-rate is the share of the requests that are counted (1.0 counts every request).
+ * With query-count.header.enabled every request is counted and the count is also returned in the
+ * X-Query-Count header (see QueryCountHeaderAdvice), which is meant for debugging only.
+ *
+ * Streamed responses (the exports and the reactive endpoints) read the database after the request
+ * thread has returned, so they are not recorded.
+ */
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    static final String METRIC = "http.server.requests.queries";
+
+    private final QueryCounter queryCounter;
+    private final MeterRegistry meterRegistry;
+    private final double sampleRate;
+
+    /**
+     * @param queryCounter counts the statements of the current thread
+     * @param meterRegistry the statement counts are recorded in
+     * @param sampleRate share of the requests that are counted, between 0.0 and 1.0
+     * @param header true if every request is counted for the X-Query-Count header
+     */
+    public QueryCountFilter(QueryCounter queryCounter, MeterRegistry meterRegistry,
+                            @Value("${query-count.sample-rate:1.0}") double sampleRate,
+                            @Value("${query-count.header.enabled:false}") boolean header)
+    {
+        this.queryCounter = queryCounter;
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = header ? 1.0 : sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException
+    {
+        if(sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)
+        {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        queryCounter.start();
+        try
+        {
+            chain.doFilter(request, response);
+        }
+        finally
+        {
+            long count = queryCounter.stop();
+            if(!isAsyncStarted(request))
+            {
+                DistributionSummary.builder(METRIC)
+                        .description("SQL statements sent to the database per request")
+                        .baseUnit("statements")
+                        .tags(Tags.of(WebMvcTags.method(request), WebMvcTags.uri(request, response)))
+                        .register(meterRegistry)
+                        .record(count);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.xgileit.learning.student.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * This class adds the X-Query-Count header (the number of SQL statements the request has sent so
+ * far, see QueryCountFilter) to every response with a body when query-count.header.enabled is true.
+ * The header has to be set before the body is written, so statements sent while the body is
+ * written (lazy loading) are only in the metric.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "query-count.header.enabled", havingValue = "true")
+public class QueryCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String HEADER = "X-Query-Count";
+
+    private final QueryCounter queryCounter;
+
+    public QueryCountHeaderAdvice(QueryCounter queryCounter)
+    {
+        this.queryCounter = queryCounter;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType)
+    {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+                                  Class<? extends HttpMessageConverter<?>> converterType,
+                                  ServerHttpRequest request, ServerHttpResponse response)
+    {
+        response.getHeaders().set(HEADER, String.valueOf(queryCounter.count()));
+
+        return body;
+    }
+}
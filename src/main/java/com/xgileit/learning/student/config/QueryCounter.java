@@ -0,0 +1,73 @@
+package com.xgileit.learning.student.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * This class counts the SQL statements Hibernate sends to the database on the current thread.
+ * Hibernate hands every statement to it before preparing it (hibernate.session_factory.statement_inspector),
+ * this includes the native queries, but a JDBC batch of inserts or updates counts as one statement.
+ * Rows served from the second level cache are not counted, because no statement is sent.
+ *
+ * Counting is only done between start() and stop(), on other threads (or outside of them) a
+ * statement costs a single thread local lookup. The reactive endpoints do not go through
+ * Hibernate, so their queries are never counted.
+ */
+@Component
+public class QueryCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final ThreadLocal<long[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties)
+    {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql)
+    {
+        long[] count = COUNT.get();
+        if(count != null)
+        {
+            count[0]++;
+        }
+
+        return sql;
+    }
+
+    /**
+     * Starts counting the statements of the current thread from zero.
+     */
+    public void start()
+    {
+        COUNT.set(new long[1]);
+    }
+
+    /**
+     * @return number of statements since start(), 0 if the current thread is not being counted
+     */
+    public long count()
+    {
+        long[] count = COUNT.get();
+
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * Stops counting the statements of the current thread.
+     *
+     * @return number of statements since start()
+     */
+    public long stop()
+    {
+        long count = count();
+        COUNT.remove();
+
+        return count;
+    }
+}
@@ -0,0 +1,104 @@
+package com.xgileit.learning.student.config;
+
+import com.xgileit.learning.student.enums.Authority;
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.model.CodeConverter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+/**
+ * This class sets up the two ways the database is read. The JPA repositories in the "repo"
+ * package are used for everything, the reactive (R2DBC) repositories in "repo.reactive" only
+ * stream rows to the clients of the reactive endpoints (see ReactiveRosterController).
+ *
+ * The entities are annotated for JPA, so both packages are named explicitly, otherwise JPA would
+ * also claim the reactive repositories. Spring Boot does not create the JDBC data source or the
+ * JPA transaction manager once R2DBC is set up, so both are created here. The JPA transaction
+ * manager is used by every blocking @Transactional method.
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+@EnableJpaRepositories(basePackages = "com.xgileit.learning.student.repo",
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = R2dbcRepository.class))
+@EnableR2dbcRepositories(basePackages = "com.xgileit.learning.student.repo.reactive")
+public class RepositoryConfig {
+
+    /**
+     * Built from the spring.datasource and spring.datasource.hikari properties, the same way
+     * Spring Boot would build it.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties)
+    {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory)
+    {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    /**
+     * JPA stores the enums by their position (ordinal), R2DBC would read them by name. The codes
+     * are stored as 16 bytes (see CodeConverter), they are the only binary columns.
+     */
+    @Bean
+    public R2dbcCustomConversions r2dbcCustomConversions(ConnectionFactory connectionFactory)
+    {
+        return R2dbcCustomConversions.of(DialectResolver.getDialect(connectionFactory),
+                List.of(new StatusReadingConverter(), new AuthorityReadingConverter(),
+                        new CodeReadingConverter()));
+    }
+
+    @ReadingConverter
+    static class StatusReadingConverter implements Converter<Integer, Status> {
+
+        @Override
+        public Status convert(Integer ordinal)
+        {
+            return Status.values()[ordinal];
+        }
+    }
+
+    @ReadingConverter
+    static class AuthorityReadingConverter implements Converter<Integer, Authority> {
+
+        @Override
+        public Authority convert(Integer ordinal)
+        {
+            return Authority.values()[ordinal];
+        }
+    }
+
+    @ReadingConverter
+    static class CodeReadingConverter implements Converter<byte[], String> {
+
+        @Override
+        public String convert(byte[] bytes)
+        {
+            return CodeConverter.toCode(bytes);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.xgileit.learning.student.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class serves the requests on virtual threads instead of Tomcat's pool of platform threads
+ * (server.tomcat.threads.max, 200 by default) when virtual-threads.enabled is true. Every request
+ * gets it's own virtual thread, which is cheap to block on JDBC, so the number of requests served
+ * at the same time is no longer limited by the thread pool. The database work is limited by the
+ * connection pool instead, which is why spring.datasource.hikari.maximum-pool-size is set on it's
+ * own in application.properties. The newline delimited JSON exports are written on virtual
+ * threads too.
+ *
+ * Virtual threads need Java 21 or newer to run. The project is still compiled for Java 17, so the
+ * executor is looked up at runtime and the application refuses to start on an older Java.
+ *
+ * Upgrade path:
+ * 1. Run the application on Java 21 with virtual-threads.enabled=true (this class).
+ * 2. Move to Spring Boot 3.2 or newer (javax.persistence becomes jakarta.persistence and
+ *    Hibernate 6 comes with it), set spring.threads.virtual.enabled=true and remove this class.
+ * 3. Keep the MySQL driver up to date, older drivers block inside synchronized code, which pins
+ *    the virtual thread to it's carrier thread until the query is done.
+ */
+@Configuration
+@ConditionalOnProperty(name = "virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+    private final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer()
+    {
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer)
+    {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdown();
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch(NoSuchMethodException e)
+        {
+            throw new IllegalStateException("virtual-threads.enabled needs Java 21 or newer, this is Java "
+                    + Runtime.version().feature());
+        }
+        catch(ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("Could not create the virtual thread executor", e);
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package com.xgileit.learning.student.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.xgileit.learning.student.model.Admin;
 import com.xgileit.learning.student.model.Student;
 import com.xgileit.learning.student.model.Teacher;
 import com.xgileit.learning.student.service.AdminService;
+import com.xgileit.learning.student.service.EntityCacheService;
+import com.xgileit.learning.student.service.ExportService;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This is the Controller class. It specifies the endpoints you'd have to use to get access
@@ -20,37 +30,106 @@ import java.util.List;
 public class AdminController {
 
     private final AdminService adminService;
+    private final ExportService exportService;
+    private final EntityCacheService entityCacheService;
+    private final ObjectReader studentReader;
 
     /**
-     * Here I am injecting the adminService in this class in order to have access to all it's
-     * functionalities.
-     * @param adminService
+     * Here I am injecting the adminService, exportService, entityCacheService and objectMapper in
+     * this class in order to have access to all it's functionalities.
+     * @param adminService, exportService, entityCacheService, objectMapper
      */
-    public AdminController(AdminService adminService)
+    public AdminController(AdminService adminService, ExportService exportService,
+                           EntityCacheService entityCacheService, ObjectMapper objectMapper)
     {
         this.adminService = adminService;
+        this.exportService = exportService;
+        this.entityCacheService = entityCacheService;
+        this.studentReader = objectMapper.readerFor(Student.class);
     }
 
     /**
      * How to access this method: "/api/v1/admin/all/teacher"
+     * "/api/v1/admin/all/teacher?page=0&size=50" returns one page of teachers, and
+     * "/api/v1/admin/all/teacher?after=id&size=50" returns the teachers following the given id
+     * (pass the id of the last teacher received to get the next batch).
+     *
+     * @param page zero based page number (optional)
+     * @param after id of the last teacher already received (optional)
+     * @param size number of teachers per page
      * @return list of all teachers stored in database.
      */
     @GetMapping("/all/teacher")
-    public List<Teacher> listAllTeachers()
+    public List<Teacher> listAllTeachers(@RequestParam(value = "page", required = false) Integer page,
+                                         @RequestParam(value = "after", required = false) Long after,
+                                         @RequestParam(value = "size", defaultValue = "50") int size)
     {
+        if(after != null)
+        {
+            return adminService.getTeachersAfter(after, size);
+        }
+        if(page != null)
+        {
+            return adminService.getTeachersPage(page, size);
+        }
+
         return adminService.getAllTeachers();
     }
 
     /**
      * How to access this method: "/api/v1/admin/all/admin"
+     * "/api/v1/admin/all/admin?page=0&size=50" returns one page of admins, and
+     * "/api/v1/admin/all/admin?after=id&size=50" returns the admins following the given id
+     * (pass the id of the last admin received to get the next batch).
+     *
+     * @param page zero based page number (optional)
+     * @param after id of the last admin already received (optional)
+     * @param size number of admins per page
      * @return list of all admin's stored in database.
      */
     @GetMapping("/all/admin")
-    public List<Admin> listAllAdmins()
+    public List<Admin> listAllAdmins(@RequestParam(value = "page", required = false) Integer page,
+                                     @RequestParam(value = "after", required = false) Long after,
+                                     @RequestParam(value = "size", defaultValue = "50") int size)
     {
+        if(after != null)
+        {
+            return adminService.getAdminsAfter(after, size);
+        }
+        if(page != null)
+        {
+            return adminService.getAdminsPage(page, size);
+        }
+
         return adminService.getAllAdmins();
     }
 
+    /**
+     * How to access this method: "/api/v1/admin/export/teacher"
+     * Every teacher is written as one line of JSON while it is being read from the database,
+     * so the whole table is never held in memory.
+     *
+     * @return newline delimited JSON of all teachers stored in database.
+     */
+    @GetMapping(value = "/export/teacher", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportTeachers()
+    {
+        return ResponseEntity.ok(exportService::exportTeachers);
+    }
+
+    /**
+     * How to access this method: "/api/v1/admin/export/admin"
+     * Every admin is written as one line of JSON while it is being read from the database,
+     * so the whole table is never held in memory.
+     *
+     * @return newline delimited JSON of all admin's stored in database.
+     */
+    @GetMapping(value = "/export/admin", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportAdmins()
+    {
+        return ResponseEntity.ok(exportService::exportAdmins);
+    }
+
     /**
      * How to access this method: "/api/v1/admin/register/student"
      * This method registers and adds a new student to the database.
@@ -64,6 +143,37 @@ public class AdminController {
         return adminService.registerStudent(student);
     }
 
+    /**
+     * How to access this method: "/api/v1/admin/register/students"
+     * This method registers and adds a list of new students to the database in one go.
+     *
+     * @param students list of student objects
+     * @return registered students if the request were successful
+     */
+    @PostMapping(value = "/register/students", consumes = "application/json")
+    public List<Student> registerStudents(@RequestBody List<Student> students)
+    {
+        return adminService.registerStudents(students);
+    }
+
+    /**
+     * How to access this method: "/api/v1/admin/register/students" with the
+     * "application/x-ndjson" content type (one student per line).
+     * The students are registered while the request body is being read, so the whole list is
+     * never held in memory.
+     *
+     * @param body newline delimited JSON of student objects
+     * @return number of registered students if the request were successful
+     */
+    @PostMapping(value = "/register/students", consumes = "application/x-ndjson")
+    public int registerStudents(InputStream body) throws IOException
+    {
+        try(MappingIterator<Student> students = studentReader.readValues(body))
+        {
+            return adminService.registerStudents(students);
+        }
+    }
+
     /**
      * How to access this method: "/api/v1/admin/employ/teacher"
      * This method employs and adds a new teacher to the database.
@@ -174,6 +284,48 @@ public class AdminController {
         return adminService.findAdmin(id);
     }
 
+    /**
+     * How to access this method: "/api/v1/admin/find/student/code/studentCode"
+     * This method will find a student object by the studentCode on it's badge.
+     *
+     * @param code
+     * @return student object if student exists in database or Error message if student
+     *         with specified code does not exist in database
+     */
+    @GetMapping("/find/student/code/{code}")
+    public Student findStudentByCode(@PathVariable("code") String code)
+    {
+        return adminService.findStudentByCode(code);
+    }
+
+    /**
+     * How to access this method: "/api/v1/admin/find/teacher/code/employeeCode"
+     * This method will find a teacher object by the employeeCode on it's badge.
+     *
+     * @param code
+     * @return teacher object if teacher exists in database or Error message if teacher
+     *         with specified code does not exist in database
+     */
+    @GetMapping("/find/teacher/code/{code}")
+    public Teacher findTeacherByCode(@PathVariable("code") String code)
+    {
+        return adminService.findTeacherByCode(code);
+    }
+
+    /**
+     * How to access this method: "/api/v1/admin/find/admin/code/employeeCode"
+     * This method will find an admin object by the employeeCode on it's badge.
+     *
+     * @param code
+     * @return admin object if admin exists in database or Error message if admin
+     *         with specified code does not exist in database
+     */
+    @GetMapping("/find/admin/code/{code}")
+    public Admin findAdminByCode(@PathVariable("code") String code)
+    {
+        return adminService.findAdminByCode(code);
+    }
+
 
     /**
      * How to access this method: "/api/v1/admin/delete/teacher/id"
@@ -203,6 +355,34 @@ public class AdminController {
         adminService.deleteAdmin(id);
     }
 
+    /**
+     * How to access this method: "/api/v1/admin/delete/teachers"
+     * This method will delete many teacher objects from the database at once. The ids are sent
+     * in the request body, for example: [1, 2, 3]
+     *
+     * @param ids of the teachers
+     * @return number of teachers that were found and deleted
+     */
+    @DeleteMapping("/delete/teachers")
+    public int deleteTeachers(@RequestBody List<Long> ids)
+    {
+        return adminService.deleteTeachers(ids);
+    }
+
+    /**
+     * How to access this method: "/api/v1/admin/delete/admins"
+     * This method will delete many admin objects from the database at once. The ids are sent
+     * in the request body, for example: [1, 2, 3]
+     *
+     * @param ids of the admins
+     * @return number of admins that were found and deleted
+     */
+    @DeleteMapping("/delete/admins")
+    public int deleteAdmins(@RequestBody List<Long> ids)
+    {
+        return adminService.deleteAdmins(ids);
+    }
+
     /**
      * How to access this method: "/api/v1/admin/student/fullName/id"
      * This method will concatenate the student's name and surname
@@ -216,6 +396,19 @@ public class AdminController {
         return adminService.getStudentFullName(id);
     }
 
+    /**
+     * How to access this method: "/api/v1/admin/student/fullNames?ids=1,2,3"
+     * This method returns the full names of many students in one request.
+     *
+     * @param ids
+     * @return Concatenated String of name & surname of every student by id
+     */
+    @GetMapping("/student/fullNames")
+    public Map<Long, String> getStudentFullNames(@RequestParam("ids") List<Long> ids)
+    {
+        return adminService.getStudentFullNames(ids);
+    }
+
     /**
      * How to access this method: "/api/v1/admin/teacher/fullName/id"
      * This method will concatenate the teacher's name and surname
@@ -229,6 +422,19 @@ public class AdminController {
         return adminService.getTeacherFullName(id);
     }
 
+    /**
+     * How to access this method: "/api/v1/admin/teacher/fullNames?ids=1,2,3"
+     * This method returns the full names of many teachers in one request.
+     *
+     * @param ids
+     * @return Concatenated String of name & surname of every teacher by id
+     */
+    @GetMapping("/teacher/fullNames")
+    public Map<Long, String> getTeacherFullNames(@RequestParam("ids") List<Long> ids)
+    {
+        return adminService.getTeacherFullNames(ids);
+    }
+
     /**
      * How to access this method: "/api/v1/admin/admin/fullName/id"
      * This method will concatenate the admin's name and surname
@@ -242,4 +448,28 @@ public class AdminController {
         return adminService.getAdminFullName(id);
     }
 
+    /**
+     * How to access this method: "/api/v1/admin/admin/fullNames?ids=1,2,3"
+     * This method returns the full names of many admins in one request.
+     *
+     * @param ids
+     * @return Concatenated String of name & surname of every admin by id
+     */
+    @GetMapping("/admin/fullNames")
+    public Map<Long, String> getAdminFullNames(@RequestParam("ids") List<Long> ids)
+    {
+        return adminService.getAdminFullNames(ids);
+    }
+
+    /**
+     * How to access this method: "/api/v1/admin/cache/statistics"
+     * The numbers stay at zero in the prod profile, which turns hibernate.generate_statistics off.
+     * @return hits, misses and puts of the student, teacher and admin caches
+     */
+    @GetMapping("/cache/statistics")
+    public Map<String, Map<String, Long>> cacheStatistics()
+    {
+        return entityCacheService.statistics();
+    }
+
 }
@@ -0,0 +1,111 @@
+package com.xgileit.learning.student.controller;
+
+import com.xgileit.learning.student.model.ArchivedStudent;
+import com.xgileit.learning.student.service.StudentArchiveService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * This is the Controller class. It specifies the endpoints you'd have to use to get access
+ * to this server.
+ *
+ * The @RequestMapping annotation determines what type of requests this class handles. So in this case
+ * if you want access to this class -> you need to access it through the base request("/api/v1/archive")
+ *
+ * Graduated students are no longer returned by the other endpoints, once they have been moved to
+ * the archive they can only be found through the endpoints below.
+ */
+@RestController
+@RequestMapping(value="/api/v1/archive")
+public class ArchiveController {
+
+    private final StudentArchiveService studentArchiveService;
+
+    /**
+     * Here I am injecting the studentArchiveService in this class in order to have access to all
+     * it's functionalities.
+     * @param studentArchiveService
+     */
+    public ArchiveController(StudentArchiveService studentArchiveService)
+    {
+        this.studentArchiveService = studentArchiveService;
+    }
+
+    /**
+     * How to access this method: "/api/v1/archive/graduate"
+     * This method will mark many students as graduated at once. The ids are sent in the request
+     * body, for example: [1, 2, 3]
+     *
+     * @param ids of the students
+     * @return number of students that graduated
+     */
+    @PutMapping("/graduate")
+    public int graduateStudents(@RequestBody List<Long> ids)
+    {
+        return studentArchiveService.graduateStudents(ids);
+    }
+
+    /**
+     * How to access this method: "/api/v1/archive/student?after=id&size=50"
+     * (pass the id of the last archived student received to get the next batch).
+     *
+     * @param after id of the last archived student already received
+     * @param size number of archived students
+     * @return list of archived students ordered by id
+     */
+    @GetMapping("/student")
+    public List<ArchivedStudent> listArchivedStudents(@RequestParam(value = "after", defaultValue = "0") Long after,
+                                                      @RequestParam(value = "size", defaultValue = "50") int size)
+    {
+        return studentArchiveService.getArchivedStudentsAfter(after, size);
+    }
+
+    /**
+     * How to access this method:
+     * "/api/v1/archive/student/graduated?from=2021-01-01T00:00:00Z&to=2022-01-01T00:00:00Z&page=0&size=50"
+     *
+     * @param from start of the range, inclusive
+     * @param to end of the range, exclusive (optional)
+     * @param page zero based page number
+     * @param size number of archived students per page
+     * @return archived students that graduated in the given time range, oldest first
+     */
+    @GetMapping("/student/graduated")
+    public List<ArchivedStudent> listGraduatedStudents(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "50") int size)
+    {
+        Instant end = to != null ? to : Instant.now();
+
+        return studentArchiveService.getArchivedStudentsGraduated(from, end, page, size);
+    }
+
+    /**
+     * How to access this method: "/api/v1/archive/student/id"
+     *
+     * @param id the student had before it was archived
+     * @return archived student or Error message if there is no archived student with this id
+     */
+    @GetMapping("/student/{id}")
+    public ArchivedStudent findArchivedStudent(@PathVariable("id") Long id)
+    {
+        return studentArchiveService.findArchivedStudent(id);
+    }
+
+    /**
+     * How to access this method: "/api/v1/archive/student/code/code"
+     *
+     * @param code studentCode of the student
+     * @return archived student or Error message if there is no archived student with this code
+     */
+    @GetMapping("/student/code/{code}")
+    public ArchivedStudent findArchivedStudentByCode(@PathVariable("code") String code)
+    {
+        return studentArchiveService.findArchivedStudentByCode(code);
+    }
+}
@@ -0,0 +1,83 @@
+package com.xgileit.learning.student.controller;
+
+import com.xgileit.learning.student.service.ExportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * This is the Controller class. It specifies the endpoints you'd have to use to get access
+ * to this server.
+ *
+ * The @RequestMapping annotation determines what type of requests this class handles. So in this case
+ * if you want access to this class -> you need to access it through the base request("/api/v1/attendance")
+ *
+ * The attendance history is written as newline delimited JSON while it is being read from the
+ * database, so a long range is never held in memory.
+ */
+@RestController
+@RequestMapping(value="/api/v1/attendance")
+public class AttendanceController {
+
+    private final ExportService exportService;
+
+    /**
+     * Here I am injecting the exportService in this class in order to have access to all it's
+     * functionalities.
+     * @param exportService
+     */
+    public AttendanceController(ExportService exportService)
+    {
+        this.exportService = exportService;
+    }
+
+    /**
+     * How to access this method: "/api/v1/attendance/student/id" or
+     * "/api/v1/attendance/student/id?from=2021-10-18T00:00:00Z&to=2021-10-19T00:00:00Z"
+     *
+     * @param id of the student
+     * @param from start of the range, inclusive (optional)
+     * @param to end of the range, exclusive (optional)
+     * @return newline delimited JSON of the student's attendance events, oldest first
+     */
+    @GetMapping(value = "/student/{id}", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> studentAttendance(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to)
+    {
+        Instant start = from != null ? from : Instant.EPOCH;
+        Instant end = to != null ? to : Instant.now();
+
+        return ResponseEntity.ok(output -> exportService.exportAttendance(id, start, end, output));
+    }
+
+    /**
+     * How to access this method: "/api/v1/attendance/day/2021-10-18" or
+     * "/api/v1/attendance/day/2021-10-18?zone=Africa/Johannesburg"
+     *
+     * @param date day of the events
+     * @param zone time zone the day is in (optional, the server's time zone by default)
+     * @return newline delimited JSON of the attendance events of every student on that day, oldest first
+     */
+    @GetMapping(value = "/day/{date}", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> dayAttendance(
+            @PathVariable("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(value = "zone", required = false) ZoneId zone)
+    {
+        ZoneId dayZone = zone != null ? zone : ZoneId.systemDefault();
+        Instant start = date.atStartOfDay(dayZone).toInstant();
+        Instant end = date.plusDays(1).atStartOfDay(dayZone).toInstant();
+
+        return ResponseEntity.ok(output -> exportService.exportAttendance(start, end, output));
+    }
+}
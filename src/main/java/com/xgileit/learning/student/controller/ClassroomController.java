@@ -0,0 +1,143 @@
+package com.xgileit.learning.student.controller;
+
+import com.xgileit.learning.student.model.Classroom;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.service.ClassroomService;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * This is the Controller class. It specifies the endpoints you'd have to use to get access
+ * to this server.
+ *
+ * The @RequestMapping annotation determines what type of requests this class handles. So in this case
+ * if you want access to this class -> you need to access it through the base request("/api/v1/classroom")
+ */
+@RestController
+@RequestMapping(value="/api/v1/classroom")
+public class ClassroomController {
+
+    private final ClassroomService classroomService;
+
+    /**
+     * Here I am injecting the classroomService in this class in order to have access to all it's
+     * functionalities.
+     * @param classroomService
+     */
+    public ClassroomController(ClassroomService classroomService)
+    {
+        this.classroomService = classroomService;
+    }
+
+    /**
+     * How to access this method: "/api/v1/classroom/all?page=0&size=50" returns one page of
+     * classrooms, and "/api/v1/classroom/all?after=id&size=50" returns the classrooms following
+     * the given id (pass the id of the last classroom received to get the next batch).
+     * Without parameters the first page is returned.
+     *
+     * @param page zero based page number (optional)
+     * @param after id of the last classroom already received (optional)
+     * @param size number of classrooms per page
+     * @return classrooms with their teachers and students
+     */
+    @GetMapping("/all")
+    public List<Classroom> listClassrooms(@RequestParam(value = "page", defaultValue = "0") int page,
+                                          @RequestParam(value = "after", required = false) Long after,
+                                          @RequestParam(value = "size", defaultValue = "50") int size)
+    {
+        if(after != null)
+        {
+            return classroomService.getClassroomsAfter(after, size);
+        }
+
+        return classroomService.getClassroomsPage(page, size);
+    }
+
+    /**
+     * How to access this method: "/api/v1/classroom/id"
+     *
+     * @param id of the classroom
+     * @return classroom with it's teacher and students
+     */
+    @GetMapping("/{id}")
+    public Classroom getClassroom(@PathVariable("id") Long id)
+    {
+        return classroomService.getClassroom(id);
+    }
+
+    /**
+     * How to access this method: "/api/v1/classroom/create" or
+     * "/api/v1/classroom/create?teacherId=id" to create the classroom with a teacher.
+     *
+     * @param teacherId id of the teacher (optional)
+     * @return new classroom without students
+     */
+    @PostMapping("/create")
+    public Classroom createClassroom(@RequestParam(value = "teacherId", required = false) Long teacherId)
+    {
+        return classroomService.createClassroom(teacherId);
+    }
+
+    /**
+     * How to access this method: "/api/v1/classroom/id/teacher/teacherId"
+     * The teacher is taken away from the classroom they had before.
+     *
+     * @param id of the classroom
+     * @param teacherId id of the teacher
+     */
+    @PutMapping("/{id}/teacher/{teacherId}")
+    public void assignTeacher(@PathVariable("id") Long id, @PathVariable("teacherId") Long teacherId)
+    {
+        classroomService.assignTeacher(id, teacherId);
+    }
+
+    /**
+     * How to access this method: "/api/v1/classroom/id/students?page=0&size=50"
+     *
+     * @param id of the classroom
+     * @param page zero based page number
+     * @param size number of students per page
+     * @return page of the students in the classroom
+     */
+    @GetMapping("/{id}/students")
+    public List<Student> getRoster(@PathVariable("id") Long id,
+                                   @RequestParam(value = "page", defaultValue = "0") int page,
+                                   @RequestParam(value = "size", defaultValue = "50") int size)
+    {
+        return classroomService.getRoster(id, page, size);
+    }
+
+    /**
+     * How to access this method: "/api/v1/classroom/id/student/studentId"
+     * The student is taken out of the classroom they were in before.
+     *
+     * @param id of the classroom
+     * @param studentId id of the student
+     */
+    @PutMapping("/{id}/student/{studentId}")
+    public void addStudent(@PathVariable("id") Long id, @PathVariable("studentId") Long studentId)
+    {
+        classroomService.addStudent(id, studentId);
+    }
+
+    /**
+     * How to access this method: "/api/v1/classroom/id/student/studentId"
+     *
+     * @param id of the classroom
+     * @param studentId id of the student
+     * @return false if the student was not in the classroom
+     */
+    @DeleteMapping("/{id}/student/{studentId}")
+    public boolean removeStudent(@PathVariable("id") Long id, @PathVariable("studentId") Long studentId)
+    {
+        return classroomService.removeStudent(id, studentId);
+    }
+}
@@ -0,0 +1,90 @@
+package com.xgileit.learning.student.controller;
+
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.model.Admin;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.model.Teacher;
+import com.xgileit.learning.student.service.ReactiveRosterService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * This is the Controller class. It specifies the endpoints you'd have to use to get access
+ * to this server.
+ *
+ * The @RequestMapping annotation determines what type of requests this class handles. So in this case
+ * if you want access to this class -> you need to access it through the base request("/api/v1/reactive")
+ *
+ * Every endpoint returns newline delimited JSON, one object per line. The request thread is
+ * released as soon as the method returns and the next row is only asked for once the previous one
+ * has been written to the client.
+ */
+@RestController
+@RequestMapping(value="/api/v1/reactive")
+public class ReactiveRosterController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ReactiveRosterService reactiveRosterService;
+
+    /**
+     * Here I am injecting the reactiveRosterService in this class in order to have access to all
+     * it's functionalities.
+     * @param reactiveRosterService
+     */
+    public ReactiveRosterController(ReactiveRosterService reactiveRosterService)
+    {
+        this.reactiveRosterService = reactiveRosterService;
+    }
+
+    /**
+     * How to access this method: "/api/v1/reactive/students" or
+     * "/api/v1/reactive/students?status=IN_CLASS"
+     *
+     * @param status IN_CLASS or NOT_IN_CLASS (optional)
+     * @return students ordered by id
+     */
+    @GetMapping(value = "/students", produces = NDJSON)
+    public Flux<Student> students(@RequestParam(value = "status", required = false) Status status)
+    {
+        return reactiveRosterService.students(status);
+    }
+
+    /**
+     * How to access this method: "/api/v1/reactive/classroom/id/students"
+     *
+     * @param id of the classroom
+     * @return students in the classroom ordered by id
+     */
+    @GetMapping(value = "/classroom/{id}/students", produces = NDJSON)
+    public Flux<Student> roster(@PathVariable("id") Long id)
+    {
+        return reactiveRosterService.roster(id);
+    }
+
+    /**
+     * How to access this method: "/api/v1/reactive/teachers"
+     *
+     * @return teachers ordered by id
+     */
+    @GetMapping(value = "/teachers", produces = NDJSON)
+    public Flux<Teacher> teachers()
+    {
+        return reactiveRosterService.teachers();
+    }
+
+    /**
+     * How to access this method: "/api/v1/reactive/admins"
+     *
+     * @return admins ordered by id
+     */
+    @GetMapping(value = "/admins", produces = NDJSON)
+    public Flux<Admin> admins()
+    {
+        return reactiveRosterService.admins();
+    }
+}
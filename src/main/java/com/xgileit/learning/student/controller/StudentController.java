@@ -1,9 +1,13 @@
 package com.xgileit.learning.student.controller;
 
+import com.xgileit.learning.student.dto.AttendanceUpdate;
+import com.xgileit.learning.student.exception.InvalidRequestException;
 import com.xgileit.learning.student.model.Student;
 import com.xgileit.learning.student.service.StudentService;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * This is the Controller class. It specifies the endpoints you'd have to use to get access
  * to this server.
@@ -53,6 +57,26 @@ public class StudentController {
         return studentService.leaveClass(student);
     }
 
+    /**
+     * How to access this method: "/api/v1/student/attendance"
+     * Changing the status of many students in one request, for example
+     * {"ids": [1, 2, 3], "status": "IN_CLASS"}
+     *
+     * @param attendanceUpdate ids of the students and their new status
+     * @return number of students that were found, or 400 Bad Request if the ids or the status
+     *         are missing
+     */
+    @PutMapping("/attendance")
+    public int updateAttendance(@RequestBody AttendanceUpdate attendanceUpdate)
+    {
+        if(attendanceUpdate.getIds() == null || attendanceUpdate.getStatus() == null)
+        {
+            throw new InvalidRequestException("Both ids and status are required");
+        }
+
+        return studentService.updateAttendance(attendanceUpdate.getIds(), attendanceUpdate.getStatus());
+    }
+
     /**
      * How to access this method: "/api/v1/student/unregister/id"
      * removing the student from this student management service.
@@ -64,4 +88,18 @@ public class StudentController {
     {
         studentService.unregister(id);
     }
+
+    /**
+     * How to access this method: "/api/v1/student/unregister"
+     * removing many students from this student management service at once. The ids are sent
+     * in the request body, for example: [1, 2, 3]
+     *
+     * @param ids of the students
+     * @return number of students that were found and removed
+     */
+    @DeleteMapping("/unregister")
+    public int unregister(@RequestBody List<Long> ids)
+    {
+        return studentService.unregister(ids);
+    }
 }
@@ -1,12 +1,21 @@
 package com.xgileit.learning.student.controller;
 
+import com.xgileit.learning.student.enums.Status;
 import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.service.ExportService;
 import com.xgileit.learning.student.service.TeacherService;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This is the Controller class. It specifies the endpoints you'd have to use to get access
@@ -20,45 +29,164 @@ import java.util.List;
 public class TeacherController {
 
     private final TeacherService teacherService;
+    private final ExportService exportService;
 
     /**
-     * Here I am injecting the teacherService in this class in order to have access to all it's
-     * functionalities.
-     * @param teacherService
+     * Here I am injecting the teacherService and exportService in this class in order to have
+     * access to all it's functionalities.
+     * @param teacherService, exportService
      */
-    public TeacherController(TeacherService teacherService)
+    public TeacherController(TeacherService teacherService, ExportService exportService)
     {
         this.teacherService = teacherService;
+        this.exportService = exportService;
     }
 
     /**
      * How to access this method: "/api/v1/teacher/all"
+     * "/api/v1/teacher/all?page=0&size=50" returns one page of students, and
+     * "/api/v1/teacher/all?after=id&size=50" returns the students following the given id
+     * (pass the id of the last student received to get the next batch).
+     *
+     * @param page zero based page number (optional)
+     * @param after id of the last student already received (optional)
+     * @param size number of students per page
      * @return list of all students stored in database.
      */
     @GetMapping("/all")
-    public List<Student> listAllStudents()
+    public List<Student> listAllStudents(@RequestParam(value = "page", required = false) Integer page,
+                                         @RequestParam(value = "after", required = false) Long after,
+                                         @RequestParam(value = "size", defaultValue = "50") int size)
     {
+        if(after != null)
+        {
+            return teacherService.getStudentsAfter(after, size);
+        }
+        if(page != null)
+        {
+            return teacherService.getStudentsPage(page, size);
+        }
+
         return teacherService.getAllStudents();
     }
 
     /**
-     * How to access this method: "/api/v1/teacher/attending"
+     * How to access this method: "/api/v1/teacher/attending" or
+     * "/api/v1/teacher/attending?page=0&size=50" to only get one page of students.
+     *
+     * @param page zero based page number (optional)
+     * @param size number of students per page
      * @return list of students attending class
      */
     @GetMapping("/attending")
-    public List<Student> studentsAttendingClass()
+    public List<Student> studentsAttendingClass(@RequestParam(value = "page", required = false) Integer page,
+                                                @RequestParam(value = "size", defaultValue = "50") int size)
+    {
+        if(page == null)
+        {
+            return teacherService.attendingClass();
+        }
+
+        return teacherService.attendingClass(page, size);
+    }
+
+    /**
+     * How to access this method: "/api/v1/teacher/attending/ids"
+     * @return ids of the students attending class
+     */
+    @GetMapping("/attending/ids")
+    public Set<Long> idsOfStudentsAttendingClass()
     {
-        return teacherService.attendingClass();
+        return teacherService.idsAttendingClass();
     }
 
     /**
-     * How to access this method: "/api/v1/teacher/not/attending"
+     * How to access this method: "/api/v1/teacher/attending/count"
+     * @return number of students attending (IN_CLASS) and not attending (NOT_IN_CLASS) class
+     */
+    @GetMapping("/attending/count")
+    public Map<Status, Long> attendanceCounts()
+    {
+        return teacherService.attendanceCounts();
+    }
+
+    /**
+     * How to access this method: "/api/v1/teacher/not/attending" or
+     * "/api/v1/teacher/not/attending?page=0&size=50" to only get one page of students.
+     *
+     * @param page zero based page number (optional)
+     * @param size number of students per page
      * @return list of students not attending class
      */
     @GetMapping("/not/attending")
-    public List<Student> studentsNotAttendingClass()
+    public List<Student> studentsNotAttendingClass(@RequestParam(value = "page", required = false) Integer page,
+                                                   @RequestParam(value = "size", defaultValue = "50") int size)
+    {
+        if(page == null)
+        {
+            return teacherService.notAttendingClass();
+        }
+
+        return teacherService.notAttendingClass(page, size);
+    }
+
+    /**
+     * How to access this method: "/api/v1/teacher/classroom/id/start"
+     * All the students in the classroom will be attending class.
+     *
+     * @param id of the classroom
+     * @return number of students in the classroom
+     */
+    @PutMapping("/classroom/{id}/start")
+    public int startClass(@PathVariable("id") Long id)
+    {
+        return teacherService.startClass(id);
+    }
+
+    /**
+     * How to access this method: "/api/v1/teacher/classroom/id/end"
+     * All the students in the classroom will no longer be attending class.
+     *
+     * @param id of the classroom
+     * @return number of students in the classroom
+     */
+    @PutMapping("/classroom/{id}/end")
+    public int endClass(@PathVariable("id") Long id)
+    {
+        return teacherService.endClass(id);
+    }
+
+    /**
+     * How to access this method: "/api/v1/teacher/export"
+     * Every student is written as one line of JSON while it is being read from the database,
+     * so the whole table is never held in memory.
+     *
+     * @return newline delimited JSON of all students stored in database.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportStudents()
+    {
+        return ResponseEntity.ok(exportService::exportStudents);
+    }
+
+    /**
+     * How to access this method: "/api/v1/teacher/attending/export"
+     * @return newline delimited JSON of the students attending class
+     */
+    @GetMapping(value = "/attending/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportStudentsAttendingClass()
+    {
+        return ResponseEntity.ok(output -> exportService.exportStudents(Status.IN_CLASS, output));
+    }
+
+    /**
+     * How to access this method: "/api/v1/teacher/not/attending/export"
+     * @return newline delimited JSON of the students not attending class
+     */
+    @GetMapping(value = "/not/attending/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportStudentsNotAttendingClass()
     {
-        return teacherService.notAttendingClass();
+        return ResponseEntity.ok(output -> exportService.exportStudents(Status.NOT_IN_CLASS, output));
     }
 
 }
@@ -0,0 +1,63 @@
+package com.xgileit.learning.student.dto;
+
+import com.xgileit.learning.student.enums.Status;
+
+import java.util.List;
+
+/**
+ * This is the request body used to change the status of many students at once.
+ */
+public class AttendanceUpdate {
+
+    private List<Long> ids;
+    private Status status;
+
+    /**
+     * An empty constructor is needed to create a new instance when the request body is read.
+     */
+    public AttendanceUpdate(){}
+
+    /**
+     * @param ids of the students
+     * @param status the students should get
+     */
+    public AttendanceUpdate(List<Long> ids, Status status)
+    {
+        this.ids = ids;
+        this.status = status;
+    }
+
+    /**
+     * @return ids of the students
+     */
+    public List<Long> getIds()
+    {
+        return ids;
+    }
+
+    /**
+     * This method initializes the ids with the value provided in parameters.
+     * @param ids
+     */
+    public void setIds(List<Long> ids)
+    {
+        this.ids = ids;
+    }
+
+    /**
+     * @return status the students should get (values = IN_CLASS, NOT_IN_CLASS)
+     */
+    public Status getStatus()
+    {
+        return status;
+    }
+
+    /**
+     * This method initializes the status with the value provided in parameters.
+     * @param status
+     */
+    public void setStatus(Status status)
+    {
+        this.status = status;
+    }
+}
@@ -0,0 +1,19 @@
+package com.xgileit.learning.student.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+//the client is asked to try again later with "429 Too Many Requests".
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class AttendanceQueueFullException extends RuntimeException{
+
+    /**
+     * This constructor will take the message provided when a new instance of this exception is created,
+     * and display it to the user.
+     * @param message
+     */
+    public AttendanceQueueFullException(String message)
+    {
+        super(message);
+    }
+}
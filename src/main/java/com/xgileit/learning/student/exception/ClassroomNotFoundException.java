@@ -0,0 +1,14 @@
+package com.xgileit.learning.student.exception;
+
+public class ClassroomNotFoundException extends RuntimeException{
+
+    /**
+     * This constructor will take the message provided when a new instance of this exception is created,
+     * and display it to the user.
+     * @param message
+     */
+    public ClassroomNotFoundException(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.xgileit.learning.student.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+//a request body that is missing a required value, or holds one that can not be stored, is answered
+//with "400 Bad Request".
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidRequestException extends RuntimeException{
+
+    /**
+     * This constructor will take the message provided when a new instance of this exception is created,
+     * and display it to the user.
+     * @param message
+     */
+    public InvalidRequestException(String message)
+    {
+        super(message);
+    }
+}
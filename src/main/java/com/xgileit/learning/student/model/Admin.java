@@ -1,33 +1,47 @@
 package com.xgileit.learning.student.model;
 
 import com.xgileit.learning.student.enums.Authority;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
-import javax.persistence.Transient;
+import javax.persistence.Index;
+import javax.persistence.Table;
 import java.io.Serializable;
-import java.util.Objects;
 
 /**
  * This is the Admin Entity class which will be mapped to the database.
  * This entity will store all the admins in this student management service.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "admin")
+@Table(indexes = @Index(name = "uk_admin_employee_code", columnList = "employee_code", unique = true))
 public class Admin implements Serializable {
 
     @Id
-    @GeneratedValue
+    //the admins have their own sequence, see PooledSequenceGenerator.
+    @GeneratedValue(generator = "admin_seq")
+    @GenericGenerator(name = "admin_seq", strategy = "com.xgileit.learning.student.model.PooledSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "admin_seq"))
     private Long id;
     private String name;
     private String surname;
     private String address;
     private String email;
     private String phone;
+    //stored as 16 bytes, see CodeConverter.
+    @Convert(converter = CodeConverter.class)
+    @Column(name = "employee_code", columnDefinition = "binary(16)")
     private String employeeCode;
     private Authority authority;
-    @Transient
-    private String fullName;
 
     /**
      * An empty constructor is needed to create a new instance via reflection by your persistence
@@ -187,10 +201,8 @@ public class Admin implements Serializable {
      */
     public String getFullName()
     {
-        //Concatenated it here because when I do it in the constructor, the request is still
-        //successful, but it returns an empty string.
-        this.fullName = name + " " + surname;
-        return fullName;
+        //not stored in a field, it is worked out from name & surname every time it is needed.
+        return name + " " + surname;
     }
 
     /**
@@ -201,11 +213,14 @@ public class Admin implements Serializable {
      *
      * That is why i'm overriding these two methods.
      *
+     * Two admins are equal when they have the same id, the hashcode is the same for every
+     * admin (see Student).
+     *
      */
     @Override
     public int hashCode()
     {
-        return Objects.hash(id, name, surname, address, fullName, email, phone, employeeCode, authority);
+        return Admin.class.hashCode();
     }
 
     @Override
@@ -213,21 +228,11 @@ public class Admin implements Serializable {
     {
         if(this == object)
             return true;
-        if(object == null)
-            return false;
-        if(getClass() != object.getClass())
+        if(!(object instanceof Admin))
             return false;
 
         Admin admin = (Admin) object;
-        return Objects.equals(id, admin.id) &&
-                Objects.equals(name, admin.name) &&
-                Objects.equals(surname, admin.surname) &&
-                Objects.equals(address, admin.address) &&
-                Objects.equals(fullName, admin.fullName) &&
-                Objects.equals(email, admin.email) &&
-                Objects.equals(phone, admin.phone) &&
-                Objects.equals(employeeCode, admin.employeeCode) &&
-                Objects.equals(authority, admin.authority);
+        return id != null && id.equals(admin.getId());
     }
 
     /**
@@ -242,7 +247,7 @@ public class Admin implements Serializable {
                 ", name='" + name + '\'' +
                 ", surname='" + surname + '\'' +
                 ", address='" + address + '\'' +
-                ", fullName='" + fullName + '\'' +
+                ", fullName='" + getFullName() + '\'' +
                 ", email='" + email + '\'' +
                 ", phone='" + phone + '\'' +
                 ", employeeCode='" + employeeCode + '\'' +
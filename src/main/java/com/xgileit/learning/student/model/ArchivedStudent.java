@@ -0,0 +1,165 @@
+package com.xgileit.learning.student.model;
+
+import com.xgileit.learning.student.enums.Authority;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * This is the ArchivedStudent Entity class which will be mapped to the database.
+ * Graduated students are moved from the student table to this table by the StudentArchiveService,
+ * so the student table (and every index on it) only grows with the active students.
+ *
+ * The rows are copied with SQL and never changed afterwards. The id is the id the student had, so
+ * the attendance history of the student can still be found by it.
+ */
+@Entity
+@Immutable
+@Table(name = "student_archive", indexes = {
+        @Index(name = "uk_student_archive_code", columnList = "student_code", unique = true),
+        @Index(name = "idx_student_archive_graduated_at", columnList = "graduated_at")})
+public class ArchivedStudent implements Serializable {
+
+    @Id
+    private Long id;
+    private String name;
+    private String surname;
+    private String address;
+    private String email;
+    private String phone;
+    //stored as 16 bytes, see CodeConverter.
+    @Convert(converter = CodeConverter.class)
+    @Column(name = "student_code", columnDefinition = "binary(16)")
+    private String studentCode;
+    private Authority authority;
+    @Column(name = "graduated_at", nullable = false)
+    private Instant graduatedAt;
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+
+    /**
+     * An empty constructor is needed to create a new instance via reflection by your persistence
+     * framework.
+     */
+    public ArchivedStudent(){}
+
+    /**
+     * @return id the student had in the student table
+     */
+    public Long getId()
+    {
+        return id;
+    }
+
+    /**
+     * @return archived student's name
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return archived student's surname
+     */
+    public String getSurname()
+    {
+        return surname;
+    }
+
+    /**
+     * @return archived student's address
+     */
+    public String getAddress()
+    {
+        return address;
+    }
+
+    /**
+     * @return archived student's email
+     */
+    public String getEmail()
+    {
+        return email;
+    }
+
+    /**
+     * @return archived student's phone
+     */
+    public String getPhone()
+    {
+        return phone;
+    }
+
+    /**
+     * @return archived student's studentCode
+     */
+    public String getStudentCode()
+    {
+        return studentCode;
+    }
+
+    /**
+     * @return archived student's authority (values = STUDENT, TEACHER, ADMIN)
+     */
+    public Authority getAuthority()
+    {
+        return authority;
+    }
+
+    /**
+     * @return time the student graduated
+     */
+    public Instant getGraduatedAt()
+    {
+        return graduatedAt;
+    }
+
+    /**
+     * @return time the student was moved to the archive
+     */
+    public Instant getArchivedAt()
+    {
+        return archivedAt;
+    }
+
+    /**
+     * Two archived students are equal when they have the same id, see Student.
+     */
+    @Override
+    public int hashCode()
+    {
+        return ArchivedStudent.class.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if(this == object)
+            return true;
+        if(!(object instanceof ArchivedStudent))
+            return false;
+
+        ArchivedStudent student = (ArchivedStudent) object;
+        return id != null && id.equals(student.getId());
+    }
+
+    /**
+     * It's just to make the contents of the ArchivedStudent object more readable.
+     * @return
+     */
+    @Override
+    public String toString()
+    {
+        return "ArchivedStudent {" +
+                "id='" + id + '\'' +
+                ", name='" + name + '\'' +
+                ", surname='" + surname + '\'' +
+                ", studentCode='" + studentCode + '\'' +
+                ", graduatedAt='" + graduatedAt + '\'' +
+                ", archivedAt='" + archivedAt + '\'' +
+                '}';
+    }
+}
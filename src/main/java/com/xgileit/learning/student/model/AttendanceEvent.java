@@ -0,0 +1,127 @@
+package com.xgileit.learning.student.model;
+
+import com.xgileit.learning.student.enums.Status;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * This is the AttendanceEvent Entity class which will be mapped to the database.
+ * Every time a student enters or leaves class an event is added to this table, the events are
+ * never changed or removed afterwards (the student's status column only holds the latest one).
+ *
+ * The events of one student are read through the (student_id, occurred_at) index and the events
+ * of a time range through the occurred_at index. The student id is stored without a foreign key,
+ * so the history of a student is kept when the student is removed.
+ */
+@Entity
+@Immutable
+@Table(name = "attendance_event", indexes = {
+        @Index(name = "idx_attendance_event_student_time", columnList = "student_id, occurred_at"),
+        @Index(name = "idx_attendance_event_time", columnList = "occurred_at")})
+public class AttendanceEvent implements Serializable {
+
+    @Id
+    //ids are reserved many at a time (see PooledSequenceGenerator), so the events of a bulk update
+    //are inserted in JDBC batches.
+    @GeneratedValue(generator = "attendance_event_seq")
+    @GenericGenerator(name = "attendance_event_seq", strategy = "com.xgileit.learning.student.model.PooledSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "attendance_event_seq"))
+    private Long id;
+    @Column(name = "student_id", nullable = false, updatable = false)
+    private Long studentId;
+    @Column(nullable = false, updatable = false)
+    private Status status;
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private Instant occurredAt;
+
+    /**
+     * An empty constructor is needed to create a new instance via reflection by your persistence
+     * framework.
+     */
+    public AttendanceEvent(){}
+
+    /**
+     * @param studentId id of the student
+     * @param status status the student changed to
+     * @param occurredAt time of the change
+     */
+    public AttendanceEvent(Long studentId, Status status, Instant occurredAt)
+    {
+        this.studentId = studentId;
+        this.status = status;
+        this.occurredAt = occurredAt;
+    }
+
+    /**
+     * @return event's id
+     */
+    public Long getId()
+    {
+        return id;
+    }
+
+    /**
+     * @return id of the student
+     */
+    public Long getStudentId()
+    {
+        return studentId;
+    }
+
+    /**
+     * @return status the student changed to
+     */
+    public Status getStatus()
+    {
+        return status;
+    }
+
+    /**
+     * @return time of the change
+     */
+    public Instant getOccurredAt()
+    {
+        return occurredAt;
+    }
+
+    /**
+     * Two events are equal when they have the same id, see Student.
+     */
+    @Override
+    public int hashCode()
+    {
+        return AttendanceEvent.class.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if(this == object)
+            return true;
+        if(!(object instanceof AttendanceEvent))
+            return false;
+
+        AttendanceEvent event = (AttendanceEvent) object;
+        return id != null && id.equals(event.getId());
+    }
+
+    /**
+     * It's just to make the contents of the AttendanceEvent object more readable.
+     * @return
+     */
+    @Override
+    public String toString()
+    {
+        return "AttendanceEvent {" +
+                "id='" + id + '\'' +
+                ", studentId='" + studentId + '\'' +
+                ", status='" + status + '\'' +
+                ", occurredAt='" + occurredAt + '\'' +
+                '}';
+    }
+}
@@ -1,9 +1,12 @@
 package com.xgileit.learning.student.model;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 import java.io.Serializable;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * This is the Classroom Entity class which will be mapped to the database.
@@ -13,11 +16,22 @@ import java.util.Objects;
 public class Classroom implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    //the classrooms have their own sequence, see PooledSequenceGenerator.
+    @GeneratedValue(generator = "classroom_seq")
+    @GenericGenerator(name = "classroom_seq", strategy = "com.xgileit.learning.student.model.PooledSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "classroom_seq"))
     private Long id;
-    @OneToOne //a class can have only one teacher
+    //a class can have only one teacher. The teacher is only read when it is needed (or when a
+    //query fetches it with the classroom, see ClassroomRepository).
+    @OneToOne(fetch = FetchType.LAZY)
     private Teacher teacher;
-    @OneToMany //a class can have many students
+    //a class can have many students. Rosters that were not fetched with the classroom are read
+    //for up to 50 classrooms at a time instead of one query per classroom.
+    @OneToMany
+    @JoinTable(name = "classroom_student",
+            joinColumns = @JoinColumn(name = "classroom_id"),
+            inverseJoinColumns = @JoinColumn(name = "student_id"))
+    @BatchSize(size = 50)
     private List<Student> student;
 
     /**
@@ -88,11 +102,16 @@ public class Classroom implements Serializable {
      *
      * That is why i'm overriding these two methods.
      *
+     * Two classrooms are equal when they have the same id, the hashcode is the same for every
+     * classroom (see Student). The teacher and the roster are not used, so a classroom with
+     * thousands of students is hashed as fast as an empty one and its hashcode does not change when
+     * students join or leave it.
+     *
      */
     @Override
     public int hashCode()
     {
-        return Objects.hash(id, teacher, student);
+        return Classroom.class.hashCode();
     }
 
     @Override
@@ -100,15 +119,11 @@ public class Classroom implements Serializable {
     {
         if(this == object)
             return true;
-        if(object == null)
-            return false;
-        if(getClass() != object.getClass())
+        if(!(object instanceof Classroom))
             return false;
 
         Classroom classroom = (Classroom) object;
-        return Objects.equals(id, classroom.id) &&
-                Objects.equals(teacher, classroom.teacher) &&
-                Objects.equals(student, classroom.student);
+        return id != null && id.equals(classroom.getId());
     }
 
     /**
@@ -118,7 +133,7 @@ public class Classroom implements Serializable {
     @Override
     public String toString()
     {
-        return "Admin {" +
+        return "Classroom {" +
                 "id='" + id + '\'' +
                 ", teacher='" + teacher + '\'' +
                 ", student='" + student + '\'' +
@@ -0,0 +1,49 @@
+package com.xgileit.learning.student.model;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * This class stores the studentCode and employeeCode (UUIDs) as 16 bytes (BINARY(16)) instead of
+ * the 36 characters of their text form. The unique indexes on the codes are less than half the
+ * size that way, so more of them fits in memory. The entities and the JSON still use the text form.
+ *
+ * The bytes are the same as MySQL's UUID_TO_BIN(code) (see db/binary-codes.sql).
+ */
+@Converter
+public class CodeConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String code)
+    {
+        if(code == null)
+        {
+            return null;
+        }
+
+        UUID uuid = UUID.fromString(code);
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes)
+    {
+        return bytes == null ? null : toCode(bytes);
+    }
+
+    /**
+     * @param bytes 16 bytes read from a code column
+     * @return text form of the code
+     */
+    public static String toCode(byte[] bytes)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+}
@@ -0,0 +1,34 @@
+package com.xgileit.learning.student.model;
+
+/**
+ * This is a projection of the Student, Teacher and Admin entities. When a repository method
+ * returns it, only the id, name and surname columns are read from the database instead of the
+ * whole entity.
+ */
+public interface FullName {
+
+    /**
+     * @return object's id
+     */
+    Long getId();
+
+    /**
+     * @return object's name
+     */
+    String getName();
+
+    /**
+     * @return object's surname
+     */
+    String getSurname();
+
+    /**
+     * Concatenates name & surname
+     *
+     * @return name & surname
+     */
+    default String getFullName()
+    {
+        return getName() + " " + getSurname();
+    }
+}
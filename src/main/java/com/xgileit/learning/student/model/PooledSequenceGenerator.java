@@ -0,0 +1,43 @@
+package com.xgileit.learning.student.model;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * This class gives every entity it's own id sequence (named with the "sequence_name" parameter)
+ * instead of the hibernate_sequence a bare @GeneratedValue shares between all of them. The ids
+ * are reserved student-management.id.allocation-size at a time (50 by default, set with
+ * spring.jpa.properties in application.properties) and handed out from memory, so the sequence
+ * is only read once per allocation and inserts can be sent in JDBC batches.
+ *
+ * MySQL has no sequences, there the sequence is a table with one row (for example student_seq),
+ * which is updated once per allocation. The ids are reserved with the "pooled-lo" optimizer: the
+ * sequence holds the first id of the next allocation, and an allocation of any size starts there.
+ * The allocation size can therefore be changed between two runs on MySQL. The "pooled" optimizer
+ * would hand out ids again after a raise, because its sequence holds the last id of the
+ * allocation. On a database with real sequences the increment of the sequences has to be changed
+ * too.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE = "student-management.id.allocation-size";
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException
+    {
+        int allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE,
+                serviceRegistry.getService(ConfigurationService.class).getSettings(), DEFAULT_ALLOCATION_SIZE);
+        params.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+
+        super.configure(type, params, serviceRegistry);
+    }
+}
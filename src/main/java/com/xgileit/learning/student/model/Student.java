@@ -2,31 +2,55 @@ package com.xgileit.learning.student.model;
 
 import com.xgileit.learning.student.enums.Authority;
 import com.xgileit.learning.student.enums.Status;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.Where;
 
 import javax.persistence.*;
 import java.io.Serializable;
-import java.util.Objects;
+import java.time.Instant;
 
 /**
  * This is the Student Entity class which will be mapped to the database.
- * This entity will store all the students in this student management service.
+ * This entity will store all the active students in this student management service.
+ *
+ * A student that graduates is marked with graduatedAt and from then on left out of every query
+ * (@Where), until the StudentArchiveService moves it to the student_archive table (see ArchivedStudent).
+ * Native queries are not filtered, they have to check graduated_at themselves.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "student")
+@Where(clause = "graduated_at is null")
+@Table(indexes = {@Index(name = "idx_student_status", columnList = "status"),
+        @Index(name = "uk_student_code", columnList = "student_code", unique = true),
+        @Index(name = "idx_student_graduated_at", columnList = "graduated_at")})
 public class Student implements Serializable {
 
     @Id
-    @GeneratedValue
+    //ids are reserved many at a time (see PooledSequenceGenerator), so inserts can be sent to the
+    //database in JDBC batches (an identity column would need a round trip per insert to read the
+    //id back).
+    @GeneratedValue(generator = "student_seq")
+    @GenericGenerator(name = "student_seq", strategy = "com.xgileit.learning.student.model.PooledSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "student_seq"))
     private Long id;
     private String name;
     private String surname;
     private String address;
     private String email;
     private String phone;
+    //stored as 16 bytes, see CodeConverter.
+    @Convert(converter = CodeConverter.class)
+    @Column(name = "student_code", columnDefinition = "binary(16)")
     private String studentCode;
     private Authority authority;
     private Status status;
-    @Transient
-    private String fullName;
+    //set once, with a single update statement (see StudentRepository.graduateByIdIn).
+    @Column(name = "graduated_at", insertable = false, updatable = false)
+    private Instant graduatedAt;
 
     /**
      * An empty constructor is needed to create a new instance via reflection by your persistence
@@ -196,6 +220,14 @@ public class Student implements Serializable {
         this.status = status;
     }
 
+    /**
+     * @return time the student graduated, null for an active student
+     */
+    public Instant getGraduatedAt()
+    {
+        return graduatedAt;
+    }
+
     /**
      * Concatenates name & surname
      *
@@ -203,10 +235,8 @@ public class Student implements Serializable {
      */
     public String getFullName()
     {
-        //Concatenated it here because when I do it in the constructor, the request is still
-        //successful, but it returns an empty string.
-        this.fullName = name + " " + surname;
-        return fullName;
+        //not stored in a field, it is worked out from name & surname every time it is needed.
+        return name + " " + surname;
     }
 
     /**
@@ -217,12 +247,18 @@ public class Student implements Serializable {
      *
      * That is why i'm overriding these two methods.
      *
+     * Two students are equal when they have the same id. A student that has not been saved yet
+     * has no id and is only equal to itself. The hashcode is the same for every student, so it
+     * does not change when the id is given to the student on save (a set or map holding it would
+     * lose it otherwise) and it stays equal for two copies of the same student that hold different
+     * data (for example a changed studentCode). A large set of students ends up in one bucket,
+     * so large lookups should be keyed by id instead.
+     *
      */
     @Override
     public int hashCode()
     {
-        return Objects.hash(id, name, surname, address, fullName, email, phone,
-                studentCode, authority, status);
+        return Student.class.hashCode();
     }
 
     @Override
@@ -230,22 +266,13 @@ public class Student implements Serializable {
     {
         if(this == object)
             return true;
-        if(object == null)
-            return false;
-        if(getClass() != object.getClass())
+        //instanceof instead of getClass(), so a lazy loaded (proxy) student is still equal to the
+        //student itself.
+        if(!(object instanceof Student))
             return false;
 
         Student student = (Student) object;
-        return Objects.equals(id, student.id) &&
-                Objects.equals(name, student.name) &&
-                Objects.equals(surname, student.surname) &&
-                Objects.equals(address, student.address) &&
-                Objects.equals(fullName, student.fullName) &&
-                Objects.equals(email, student.email) &&
-                Objects.equals(phone, student.phone) &&
-                Objects.equals(studentCode, student.studentCode) &&
-                Objects.equals(authority, student.authority) &&
-                Objects.equals(status, student.status);
+        return id != null && id.equals(student.getId());
     }
 
     /**
@@ -260,7 +287,7 @@ public class Student implements Serializable {
                 ", name='" + name + '\'' +
                 ", surname='" + surname + '\'' +
                 ", address='" + address + '\'' +
-                ", fullName='" + fullName + '\'' +
+                ", fullName='" + getFullName() + '\'' +
                 ", email='" + email + '\'' +
                 ", phone='" + phone + '\'' +
                 ", studentCode='" + studentCode + '\'' +
@@ -1,33 +1,50 @@
 package com.xgileit.learning.student.model;
 
 import com.xgileit.learning.student.enums.Authority;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
-import javax.persistence.Transient;
+import javax.persistence.Index;
+import javax.persistence.Table;
 import java.io.Serializable;
-import java.util.Objects;
 
 /**
  * This is the Teacher Entity class which will be mapped to the database.
  * This entity will store all the teachers in this student management service.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "teacher")
+@Table(indexes = @Index(name = "uk_teacher_employee_code", columnList = "employee_code", unique = true))
+//lazy loaded teachers (see Classroom) are read up to 50 at a time.
+@BatchSize(size = 50)
 public class Teacher implements Serializable {
 
     @Id
-    @GeneratedValue
+    //the teachers have their own sequence, see PooledSequenceGenerator.
+    @GeneratedValue(generator = "teacher_seq")
+    @GenericGenerator(name = "teacher_seq", strategy = "com.xgileit.learning.student.model.PooledSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "teacher_seq"))
     private Long id;
     private String name;
     private String surname;
     private String address;
     private String email;
     private String phone;
+    //stored as 16 bytes, see CodeConverter.
+    @Convert(converter = CodeConverter.class)
+    @Column(name = "employee_code", columnDefinition = "binary(16)")
     private String employeeCode;
     private Authority authority;
-    @Transient
-    private String fullName;
 
     /**
      * An empty constructor is needed to create a new instance via reflection by your persistence
@@ -187,10 +204,8 @@ public class Teacher implements Serializable {
      */
     public String getFullName()
     {
-        //Concatenated it here because when I do it in the constructor, the request is still
-        //successful, but it returns an empty string.
-        this.fullName = name + " " + surname;
-        return fullName;
+        //not stored in a field, it is worked out from name & surname every time it is needed.
+        return name + " " + surname;
     }
 
     /**
@@ -201,11 +216,14 @@ public class Teacher implements Serializable {
      *
      * That is why i'm overriding these two methods.
      *
+     * Two teachers are equal when they have the same id, the hashcode is the same for every
+     * teacher (see Student).
+     *
      */
     @Override
     public int hashCode()
     {
-        return Objects.hash(id, name, surname, address, fullName, email, phone, employeeCode, authority);
+        return Teacher.class.hashCode();
     }
 
     @Override
@@ -213,21 +231,13 @@ public class Teacher implements Serializable {
     {
         if(this == object)
             return true;
-        if(object == null)
-            return false;
-        if(getClass() != object.getClass())
+        //instanceof instead of getClass(), so a lazy loaded (proxy) teacher is still equal to the
+        //teacher itself.
+        if(!(object instanceof Teacher))
             return false;
 
         Teacher teacher = (Teacher) object;
-        return Objects.equals(id, teacher.id) &&
-                Objects.equals(name, teacher.name) &&
-                Objects.equals(surname, teacher.surname) &&
-                Objects.equals(address, teacher.address) &&
-                Objects.equals(fullName, teacher.fullName) &&
-                Objects.equals(email, teacher.email) &&
-                Objects.equals(phone, teacher.phone) &&
-                Objects.equals(employeeCode, teacher.employeeCode) &&
-                Objects.equals(authority, teacher.authority);
+        return id != null && id.equals(teacher.getId());
     }
 
     /**
@@ -242,7 +252,7 @@ public class Teacher implements Serializable {
                 ", name='" + name + '\'' +
                 ", surname='" + surname + '\'' +
                 ", address='" + address + '\'' +
-                ", fullName='" + fullName + '\'' +
+                ", fullName='" + getFullName() + '\'' +
                 ", email='" + email + '\'' +
                 ", phone='" + phone + '\'' +
                 ", employeeCode='" + employeeCode + '\'' +
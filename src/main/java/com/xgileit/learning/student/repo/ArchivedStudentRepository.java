@@ -0,0 +1,51 @@
+package com.xgileit.learning.student.repo;
+
+import com.xgileit.learning.student.model.ArchivedStudent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+
+/**
+ * I'm extending this interface with "JpaRepository", to get access to all it's CRUD
+ * functionalities.
+ *
+ * The archive is only read through the queries below, it is written by copyFromStudents.
+ */
+public interface ArchivedStudentRepository extends JpaRepository<ArchivedStudent, Long> {
+
+    //copies the graduated students with the given ids from the student table, in a single
+    //statement. The students have to be deleted from the student table afterwards (see
+    //StudentRepository.deleteByIdIn). No cached entity lives in this table, so the query space
+    //keeps Hibernate from emptying the cache regions.
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "student_archive"))
+    @Query(value = "insert into student_archive " +
+            "(id, name, surname, address, email, phone, student_code, authority, graduated_at, archived_at) " +
+            "select id, name, surname, address, email, phone, student_code, authority, graduated_at, :archivedAt " +
+            "from student where id in (:ids) and graduated_at is not null", nativeQuery = true)
+    int copyFromStudents(@Param("ids") Collection<Long> ids, @Param("archivedAt") Instant archivedAt);
+
+    //reads the archived student through the unique index on the student_code column.
+    Optional<ArchivedStudent> findByStudentCode(String studentCode);
+
+    //keyset pagination, see StudentRepository.
+    List<ArchivedStudent> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    //the students that graduated in the given time range, read through the graduated_at index.
+    //"from" is inclusive and "to" is exclusive.
+    @Query("select s from ArchivedStudent s where s.graduatedAt >= :from and s.graduatedAt < :to " +
+            "order by s.graduatedAt, s.id")
+    List<ArchivedStudent> findByGraduatedAt(@Param("from") Instant from, @Param("to") Instant to,
+                                            Pageable pageable);
+}
@@ -0,0 +1,39 @@
+package com.xgileit.learning.student.repo;
+
+import com.xgileit.learning.student.model.AttendanceEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+/**
+ * I'm extending this interface with "JpaRepository", to get access to all it's CRUD
+ * functionalities.
+ *
+ * The range queries below stream the events instead of returning a list (see
+ * StudentRepository.streamAll), "from" is inclusive and "to" is exclusive.
+ */
+public interface AttendanceEventRepository extends JpaRepository<AttendanceEvent, Long> {
+
+    //read through the (student_id, occurred_at) index, already in the order of the index.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select e from AttendanceEvent e where e.studentId = :studentId " +
+            "and e.occurredAt >= :from and e.occurredAt < :to order by e.occurredAt")
+    Stream<AttendanceEvent> streamByStudentId(@Param("studentId") Long studentId,
+                                              @Param("from") Instant from, @Param("to") Instant to);
+
+    //read through the occurred_at index.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select e from AttendanceEvent e where e.occurredAt >= :from and e.occurredAt < :to " +
+            "order by e.occurredAt")
+    Stream<AttendanceEvent> streamByOccurredAt(@Param("from") Instant from, @Param("to") Instant to);
+}
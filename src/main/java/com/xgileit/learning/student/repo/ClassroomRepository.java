@@ -0,0 +1,102 @@
+package com.xgileit.learning.student.repo;
+
+import com.xgileit.learning.student.model.Classroom;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+
+/**
+ * I'm extending this interface with "JpaRepository", to get access to all it's CRUD
+ * functionalities.
+ */
+public interface ClassroomRepository extends JpaRepository<Classroom, Long> {
+
+    //reads the classroom, it's teacher and it's roster with a single statement.
+    @EntityGraph(attributePaths = {"teacher", "student"})
+    @Query("select c from Classroom c where c.id = :id")
+    Optional<Classroom> findWithTeacherAndStudentsById(@Param("id") Long id);
+
+    /**
+     * Limiting a query that fetches a collection makes Hibernate read every row and page in
+     * memory, so a page of classrooms is read in two statements: the ids of the page first, then
+     * the classrooms with those ids together with their teachers and rosters.
+     */
+    //offset pagination, a slice does not run the extra count query a page would need.
+    @Query("select c.id from Classroom c")
+    Slice<Long> findIdsBy(Pageable pageable);
+
+    //keyset pagination, only the ids after the last id the client has seen.
+    @Query("select c.id from Classroom c where c.id > :id order by c.id")
+    List<Long> findIdsByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    //distinct removes the copies of a classroom the join creates (one per student) in memory,
+    //the hint keeps it out of the SQL.
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    @Query("select distinct c from Classroom c left join fetch c.teacher left join fetch c.student " +
+            "where c.id in :ids order by c.id")
+    List<Classroom> findWithTeacherAndStudentsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * The roster is changed one row at a time with SQL on the join table. Changing the List of a
+     * loaded classroom would make Hibernate read the whole roster first and then delete and insert
+     * every row of it again, because the list is mapped as a bag. The query spaces tell Hibernate
+     * that these statements do not touch any cached entity.
+     */
+    String ROSTER_QUERY_SPACE = "classroom_student";
+    String CLASSROOM_QUERY_SPACE = "classroom";
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = ROSTER_QUERY_SPACE))
+    @Query(value = "insert into classroom_student (classroom_id, student_id) values (:classroomId, :studentId)",
+            nativeQuery = true)
+    int addStudent(@Param("classroomId") Long classroomId, @Param("studentId") Long studentId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = ROSTER_QUERY_SPACE))
+    @Query(value = "delete from classroom_student where classroom_id = :classroomId and student_id = :studentId",
+            nativeQuery = true)
+    int removeStudent(@Param("classroomId") Long classroomId, @Param("studentId") Long studentId);
+
+    //a student can only be in one classroom.
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = ROSTER_QUERY_SPACE))
+    @Query(value = "delete from classroom_student where student_id = :studentId", nativeQuery = true)
+    int removeStudentFromAllClassrooms(@Param("studentId") Long studentId);
+
+    //used before the students are deleted (see StudentRepository.deleteByIdIn).
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = ROSTER_QUERY_SPACE))
+    @Query(value = "delete from classroom_student where student_id in (:studentIds)", nativeQuery = true)
+    int removeStudentsFromAllClassrooms(@Param("studentIds") Collection<Long> studentIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = CLASSROOM_QUERY_SPACE))
+    @Query(value = "update classroom set teacher_id = :teacherId where id = :id", nativeQuery = true)
+    int updateTeacherById(@Param("id") Long id, @Param("teacherId") Long teacherId);
+
+    //a teacher can only have one classroom.
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = CLASSROOM_QUERY_SPACE))
+    @Query(value = "update classroom set teacher_id = null where teacher_id = :teacherId", nativeQuery = true)
+    int removeTeacherFromAllClassrooms(@Param("teacherId") Long teacherId);
+
+    //used before the teachers are deleted (see TeacherRepository.deleteByIdIn), the classrooms
+    //are kept without a teacher.
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = CLASSROOM_QUERY_SPACE))
+    @Query(value = "update classroom set teacher_id = null where teacher_id in (:teacherIds)", nativeQuery = true)
+    int removeTeachersFromAllClassrooms(@Param("teacherIds") Collection<Long> teacherIds);
+}
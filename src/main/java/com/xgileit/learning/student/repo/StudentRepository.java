@@ -1,9 +1,26 @@
 package com.xgileit.learning.student.repo;
 
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.model.FullName;
 import com.xgileit.learning.student.model.Student;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /**
  * I'm extending this interface with "JpaRepository", to get access to all it's CRUD
@@ -15,8 +32,135 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
      * These are custom abstract methods I am going to be implementing in my service class.
      * The names of these methods are going to be read like queries by Spring.
      */
-    void deleteStudentById(Long id);
+    //the deletes are single SQL statements, a derived delete would read every student first and
+    //delete them one by one. They get their own query space, so Hibernate does not empty the
+    //whole student cache region, the services evict the deleted students (see EntityCacheService).
+    //The students have to be taken out of the classrooms first (see ClassroomRepository.removeStudentsFromAllClassrooms).
+    String DELETE_QUERY_SPACE = "student_delete";
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = DELETE_QUERY_SPACE))
+    @Query(value = "delete from student where id = :id", nativeQuery = true)
+    int deleteStudentById(@Param("id") Long id);
+
+    //returns the number of students that were deleted.
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = DELETE_QUERY_SPACE))
+    @Query(value = "delete from student where id in (:ids)", nativeQuery = true)
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 
     //setting it to optional, because this method may or may not return a value.
-    Optional<Student> findStudentById(Long id);
+    //findById looks in the second level cache before going to the database, which a derived
+    //query would not do.
+    default Optional<Student> findStudentById(Long id)
+    {
+        return findById(id);
+    }
+
+    //reads the student through the unique index on the student_code column. The code is compared
+    //in it's stored (16 byte) form, see CodeConverter.
+    Optional<Student> findByStudentCode(String studentCode);
+
+    //the filtering on status is done by the database (the status column is indexed), so only
+    //the matching students are loaded.
+    List<Student> findByStatus(Status status);
+
+    //a slice does not run the extra count query a page would need.
+    Slice<Student> findByStatus(Status status, Pageable pageable);
+
+    /**
+     * The status updates below are written in SQL and get their own query space. An update
+     * written in JPQL (or SQL without a query space) makes Hibernate empty the whole student cache
+     * region, the status updates evict only the students they changed (see EntityCacheService).
+     * Graduated students are skipped, the @Where of Student does not apply to SQL.
+     */
+    String STATUS_QUERY_SPACE = "student_status";
+
+    //changes only the status column of one student, without reading the student first.
+    //Returns 0 if there is no student with this id.
+    default int updateStatusById(Long id, Status status)
+    {
+        return updateStatusColumnById(id, status.ordinal());
+    }
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = STATUS_QUERY_SPACE))
+    @Query(value = "update student set status = :status where id = :id and graduated_at is null",
+            nativeQuery = true)
+    int updateStatusColumnById(@Param("id") Long id, @Param("status") int status);
+
+    //changes the status of all the given students with a single update statement, without
+    //loading them first. Returns the number of matching students.
+    default int updateStatusByIdIn(Collection<Long> ids, Status status)
+    {
+        return updateStatusColumnByIdIn(ids, status.ordinal());
+    }
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = STATUS_QUERY_SPACE))
+    @Query(value = "update student set status = :status where id in (:ids) and graduated_at is null",
+            nativeQuery = true)
+    int updateStatusColumnByIdIn(@Param("ids") Collection<Long> ids, @Param("status") int status);
+
+    //marks the students as graduated, from then on they are left out of every query (see
+    //Student). The students have to be taken out of the classrooms first. Returns the number of
+    //students that were active.
+    String GRADUATION_QUERY_SPACE = "student_graduation";
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = GRADUATION_QUERY_SPACE))
+    @Query(value = "update student set graduated_at = :graduatedAt where id in (:ids) and graduated_at is null",
+            nativeQuery = true)
+    int graduateByIdIn(@Param("ids") Collection<Long> ids, @Param("graduatedAt") Instant graduatedAt);
+
+    //the oldest graduates first, read from the graduated_at index. Used by the StudentArchiveService,
+    //written in SQL because the @Where of Student hides the graduated students from JPQL.
+    @Query(value = "select id from student where graduated_at < :before order by graduated_at, id limit :limit",
+            nativeQuery = true)
+    List<Long> findGraduatedIds(@Param("before") Instant before, @Param("limit") int limit);
+
+    //returns the given ids that belong to an existing student.
+    @Query("select s.id from Student s where s.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    //ids of the students in the roster of a classroom.
+    @Query("select s.id from Classroom c join c.student s where c.id = :classroomId")
+    List<Long> findIdsByClassroomId(@Param("classroomId") Long classroomId);
+
+    //one page of the roster of a classroom, the students are read from the join table by the
+    //classroom id so the rest of the roster is never loaded.
+    @Query("select s from Student s where s.id in " +
+            "(select r.id from Classroom c join c.student r where c.id = :classroomId)")
+    Slice<Student> findByClassroomId(@Param("classroomId") Long classroomId, Pageable pageable);
+
+    //only reads the ids (from the status index), used to build the attendance projection.
+    @Query("select s.id from Student s where s.status = :status")
+    List<Long> findIdsByStatus(@Param("status") Status status);
+
+    //only reads the id, name and surname columns instead of the whole student.
+    Optional<FullName> findFullNameById(Long id);
+
+    //reads the names of many students with a single query.
+    List<FullName> findFullNamesByIdIn(Collection<Long> ids);
+
+    //offset pagination, a slice does not run the extra count query a page would need.
+    Slice<Student> findAllBy(Pageable pageable);
+
+    //keyset pagination, only the rows after the last id the client has seen are read from the
+    //primary key index, so deep pages cost the same as the first one.
+    List<Student> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    //streams every student for the export instead of loading the whole table in a list. The
+    //fetch size makes the driver read the rows in chunks (MySQL needs useCursorFetch=true for
+    //this) and read only tells Hibernate not to keep a snapshot of every row for dirty checking.
+    //The stream has to be consumed and closed inside a transaction.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select s from Student s")
+    Stream<Student> streamAll();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select s from Student s where s.status = :status")
+    Stream<Student> streamByStatus(@Param("status") Status status);
 }
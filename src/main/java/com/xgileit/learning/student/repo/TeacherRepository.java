@@ -1,9 +1,24 @@
 package com.xgileit.learning.student.repo;
 
+import com.xgileit.learning.student.model.FullName;
 import com.xgileit.learning.student.model.Teacher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /**
  * I'm extending this interface with "JpaRepository", to get access to all it's CRUD
@@ -15,9 +30,54 @@ public interface TeacherRepository extends JpaRepository<Teacher, Long> {
      * These are custom abstract methods I am going to be implementing in my service class.
      * The names of these methods are going to be read like queries by Spring.
      */
-    void deleteTeacherById(Long id);
+    //the deletes are single SQL statements, a derived delete would read every teacher first and
+    //delete them one by one. They get their own query space, so Hibernate does not empty the
+    //whole teacher cache region, the services evict the deleted teachers (see EntityCacheService).
+    //The teachers have to be taken out of the classrooms first (see ClassroomRepository.removeTeachersFromAllClassrooms).
+    String DELETE_QUERY_SPACE = "teacher_delete";
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = DELETE_QUERY_SPACE))
+    @Query(value = "delete from teacher where id = :id", nativeQuery = true)
+    int deleteTeacherById(@Param("id") Long id);
+
+    //returns the number of teachers that were deleted.
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = DELETE_QUERY_SPACE))
+    @Query(value = "delete from teacher where id in (:ids)", nativeQuery = true)
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 
     //setting it to optional, because this method may or may not return a value.
-    Optional<Teacher> findTeacherById(Long id);
+    //findById looks in the second level cache before going to the database, which a derived
+    //query would not do.
+    default Optional<Teacher> findTeacherById(Long id)
+    {
+        return findById(id);
+    }
+
+    //reads the teacher through the unique index on the employee_code column. The code is compared
+    //in it's stored (16 byte) form, see CodeConverter.
+    Optional<Teacher> findByEmployeeCode(String employeeCode);
+
+    //only reads the id, name and surname columns instead of the whole teacher.
+    Optional<FullName> findFullNameById(Long id);
+
+    //reads the names of many teachers with a single query.
+    List<FullName> findFullNamesByIdIn(Collection<Long> ids);
+
+    //offset pagination, a slice does not run the extra count query a page would need.
+    Slice<Teacher> findAllBy(Pageable pageable);
+
+    //keyset pagination, only the rows after the last id the client has seen are read from the
+    //primary key index, so deep pages cost the same as the first one.
+    List<Teacher> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 
+    //streams every teacher for the export instead of loading the whole table in a list. The
+    //fetch size makes the driver read the rows in chunks (MySQL needs useCursorFetch=true for
+    //this) and read only tells Hibernate not to keep a snapshot of every row for dirty checking.
+    //The stream has to be consumed and closed inside a transaction.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select t from Teacher t")
+    Stream<Teacher> streamAll();
 }
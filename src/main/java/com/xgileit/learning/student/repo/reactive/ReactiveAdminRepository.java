@@ -0,0 +1,16 @@
+package com.xgileit.learning.student.repo.reactive;
+
+import com.xgileit.learning.student.model.Admin;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive (R2DBC) read access to the admins. The rows are emitted as the client asks for them,
+ * so a slow client holds neither a thread nor the whole table while it reads.
+ */
+public interface ReactiveAdminRepository extends R2dbcRepository<Admin, Long> {
+
+    @Query("select * from admin order by id")
+    Flux<Admin> streamAll();
+}
@@ -0,0 +1,26 @@
+package com.xgileit.learning.student.repo.reactive;
+
+import com.xgileit.learning.student.model.Student;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive (R2DBC) read access to the students. The rows are emitted as the client asks for them,
+ * so a slow client holds neither a thread nor the whole table while it reads. Graduated students
+ * are left out, like in StudentRepository.
+ */
+public interface ReactiveStudentRepository extends R2dbcRepository<Student, Long> {
+
+    @Query("select * from student where graduated_at is null order by id")
+    Flux<Student> streamAll();
+
+    //the status is stored by it's position (ordinal), see Status.
+    @Query("select * from student where status = :status and graduated_at is null order by id")
+    Flux<Student> streamByStatus(@Param("status") int status);
+
+    @Query("select s.* from student s join classroom_student cs on cs.student_id = s.id " +
+            "where cs.classroom_id = :classroomId and s.graduated_at is null order by s.id")
+    Flux<Student> streamByClassroomId(@Param("classroomId") Long classroomId);
+}
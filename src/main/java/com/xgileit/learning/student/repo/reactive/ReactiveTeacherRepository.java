@@ -0,0 +1,16 @@
+package com.xgileit.learning.student.repo.reactive;
+
+import com.xgileit.learning.student.model.Teacher;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive (R2DBC) read access to the teachers. The rows are emitted as the client asks for them,
+ * so a slow client holds neither a thread nor the whole table while it reads.
+ */
+public interface ReactiveTeacherRepository extends R2dbcRepository<Teacher, Long> {
+
+    @Query("select * from teacher order by id")
+    Flux<Teacher> streamAll();
+}
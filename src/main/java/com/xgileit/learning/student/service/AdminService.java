@@ -3,20 +3,32 @@ package com.xgileit.learning.student.service;
 import com.xgileit.learning.student.enums.Authority;
 import com.xgileit.learning.student.enums.Status;
 import com.xgileit.learning.student.exception.AdminNotFoundException;
+import com.xgileit.learning.student.exception.InvalidRequestException;
 import com.xgileit.learning.student.exception.StudentNotFoundException;
 import com.xgileit.learning.student.exception.TeacherNotFoundException;
 import com.xgileit.learning.student.model.Admin;
+import com.xgileit.learning.student.model.FullName;
 import com.xgileit.learning.student.model.Student;
 import com.xgileit.learning.student.model.Teacher;
 import com.xgileit.learning.student.repo.AdminRepository;
+import com.xgileit.learning.student.repo.ClassroomRepository;
 import com.xgileit.learning.student.repo.StudentRepository;
 import com.xgileit.learning.student.repo.TeacherRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * This is the Service class. Here I am implementing all the business logic of this application.
@@ -24,21 +36,52 @@ import java.util.UUID;
 @Service
 public class AdminService {
 
+    /**
+     * Same as hibernate.jdbc.batch_size in application.properties.
+     */
+    private static final int BATCH_SIZE = 50;
+
+    /**
+     * Maximum number of ids in one delete statement.
+     */
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
     private final AdminRepository adminRepository;
     private final StudentRepository studentRepository;
     private final TeacherRepository teacherRepository;
+    private final ClassroomRepository classroomRepository;
+    private final AttendanceProjection attendanceProjection;
+    private final EntityCacheService entityCacheService;
+    private final FullNameCache fullNameCache;
+    private final CodeCache codeCache;
+    private final CodeGenerator codeGenerator;
+    private final EntityManager entityManager;
 
     /**
-     * Here I am injecting the adminRepository, studentRepository and teacherRepository in this
-     * class in order to have access to all it's functionalities.
-     * @param adminRepository, studentRepository, teacherRepository
+     * Here I am injecting the adminRepository, studentRepository, teacherRepository,
+     * classroomRepository, attendanceProjection, entityCacheService, fullNameCache, codeCache,
+     * codeGenerator and entityManager in this class in order to have access to all it's
+     * functionalities.
+     * @param adminRepository, studentRepository, teacherRepository, classroomRepository,
+     *        attendanceProjection, entityCacheService, fullNameCache, codeCache, codeGenerator,
+     *        entityManager
      */
     public AdminService(AdminRepository adminRepository, StudentRepository studentRepository,
-                        TeacherRepository teacherRepository)
+                        TeacherRepository teacherRepository, ClassroomRepository classroomRepository,
+                        AttendanceProjection attendanceProjection, EntityCacheService entityCacheService,
+                        FullNameCache fullNameCache, CodeCache codeCache, CodeGenerator codeGenerator,
+                        EntityManager entityManager)
     {
         this.adminRepository = adminRepository;
         this.studentRepository = studentRepository;
         this.teacherRepository = teacherRepository;
+        this.classroomRepository = classroomRepository;
+        this.attendanceProjection = attendanceProjection;
+        this.entityCacheService = entityCacheService;
+        this.fullNameCache = fullNameCache;
+        this.codeCache = codeCache;
+        this.codeGenerator = codeGenerator;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -49,6 +92,26 @@ public class AdminService {
         return teacherRepository.findAll();
     }
 
+    /**
+     * @param page zero based page number
+     * @param size number of teachers per page (capped at Paging.MAX_PAGE_SIZE)
+     * @return page of teacher objects ordered by id
+     */
+    public List<Teacher> getTeachersPage(int page, int size)
+    {
+        return teacherRepository.findAllBy(Paging.of(page, size)).getContent();
+    }
+
+    /**
+     * @param afterId id of the last teacher the client has already received
+     * @param size number of teachers to return (capped at Paging.MAX_PAGE_SIZE)
+     * @return teacher objects with an id greater than afterId, ordered by id
+     */
+    public List<Teacher> getTeachersAfter(Long afterId, int size)
+    {
+        return teacherRepository.findByIdGreaterThanOrderByIdAsc(afterId, Paging.first(size));
+    }
+
     /**
      * @return list of all admin objects in database
      */
@@ -57,6 +120,26 @@ public class AdminService {
         return adminRepository.findAll();
     }
 
+    /**
+     * @param page zero based page number
+     * @param size number of admins per page (capped at Paging.MAX_PAGE_SIZE)
+     * @return page of admin objects ordered by id
+     */
+    public List<Admin> getAdminsPage(int page, int size)
+    {
+        return adminRepository.findAllBy(Paging.of(page, size)).getContent();
+    }
+
+    /**
+     * @param afterId id of the last admin the client has already received
+     * @param size number of admins to return (capped at Paging.MAX_PAGE_SIZE)
+     * @return admin objects with an id greater than afterId, ordered by id
+     */
+    public List<Admin> getAdminsAfter(Long afterId, int size)
+    {
+        return adminRepository.findByIdGreaterThanOrderByIdAsc(afterId, Paging.first(size));
+    }
+
     /**
      * Assigning the student object a unique studentCode upon registration.
      * Setting the student's authority to it's role in this student management service.
@@ -67,11 +150,76 @@ public class AdminService {
      */
     public Student registerStudent(Student student)
     {
-        student.setStudentCode(UUID.randomUUID().toString());
+        student.setStudentCode(codeGenerator.next());
         student.setAuthority(Authority.STUDENT);
         student.setStatus(Status.NOT_IN_CLASS);
 
-        return studentRepository.save(student);
+        Student registered = studentRepository.save(student);
+        attendanceProjection.registered(registered.getId());
+
+        return registered;
+    }
+
+    /**
+     * Registers many students in one transaction, the same way registerStudent does it for one.
+     * The inserts are sent to the database in JDBC batches (hibernate.jdbc.batch_size).
+     *
+     * @param students list of student objects
+     * @return registered students
+     * @throws InvalidRequestException if one of the students has an id, none are registered then
+     */
+    @Transactional
+    public List<Student> registerStudents(List<Student> students)
+    {
+        register(students.iterator());
+
+        return students;
+    }
+
+    /**
+     * Registers every student the iterator returns in one transaction. The students are not
+     * kept in memory, so this can be used for a stream of any size.
+     *
+     * @param students iterator over the student objects
+     * @return number of registered students
+     * @throws InvalidRequestException if one of the students has an id, none are registered then
+     */
+    @Transactional
+    public int registerStudents(Iterator<Student> students)
+    {
+        return register(students);
+    }
+
+    private int register(Iterator<Student> students)
+    {
+        int count = 0;
+        while(students.hasNext())
+        {
+            Student student = students.next();
+            //a student with an id is already in the database (persist would fail on it), it is
+            //changed with updateStudent instead.
+            if(student.getId() != null)
+            {
+                throw new InvalidRequestException("Student " + (count + 1) + " already has an id, new students have none");
+            }
+            student.setStudentCode(codeGenerator.next());
+            student.setAuthority(Authority.STUDENT);
+            student.setStatus(Status.NOT_IN_CLASS);
+
+            entityManager.persist(student);
+
+            //sending the batch to the database and emptying the persistence context, so it does
+            //not grow with the number of students.
+            if(++count % BATCH_SIZE == 0)
+            {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        //applied once the students are committed, an import that fails halfway counts none of them.
+        attendanceProjection.studentsRegistered(count);
+
+        return count;
     }
 
     /**
@@ -84,7 +232,7 @@ public class AdminService {
      */
     public Teacher employTeacher(Teacher teacher)
     {
-        teacher.setEmployeeCode(UUID.randomUUID().toString());
+        teacher.setEmployeeCode(codeGenerator.next());
         teacher.setAuthority(Authority.TEACHER);
 
         return teacherRepository.save(teacher);
@@ -100,7 +248,7 @@ public class AdminService {
      */
     public Admin employAdmin(Admin admin)
     {
-        admin.setEmployeeCode(UUID.randomUUID().toString());
+        admin.setEmployeeCode(codeGenerator.next());
         admin.setAuthority(Authority.ADMIN);
 
         return adminRepository.save(admin);
@@ -111,10 +259,22 @@ public class AdminService {
      *
      * @param student object
      * @return updated student
+     * @throws InvalidRequestException if the studentCode is not a UUID
      */
     public Student updateStudent(Student student)
     {
-        return studentRepository.save(student);
+        student.setStudentCode(validCode(student.getStudentCode()));
+        boolean isNew = student.getId() == null;
+        Student updated = studentRepository.save(student);
+        fullNameCache.evictStudent(updated.getId());
+
+        if(isNew)
+        {
+            attendanceProjection.registered(updated.getId());
+        }
+        attendanceProjection.statusChanged(updated.getId(), updated.getStatus());
+
+        return updated;
     }
 
     /**
@@ -122,10 +282,15 @@ public class AdminService {
      *
      * @param teacher object
      * @return updated teacher
+     * @throws InvalidRequestException if the employeeCode is not a UUID
      */
     public Teacher updateTeacher(Teacher teacher)
     {
-        return teacherRepository.save(teacher);
+        teacher.setEmployeeCode(validCode(teacher.getEmployeeCode()));
+        Teacher updated = teacherRepository.save(teacher);
+        fullNameCache.evictTeacher(updated.getId());
+
+        return updated;
     }
 
     /**
@@ -133,10 +298,15 @@ public class AdminService {
      *
      * @param admin object
      * @return updated admin
+     * @throws InvalidRequestException if the employeeCode is not a UUID
      */
     public Admin updateAdmin(Admin admin)
     {
-        return adminRepository.save(admin);
+        admin.setEmployeeCode(validCode(admin.getEmployeeCode()));
+        Admin updated = adminRepository.save(admin);
+        fullNameCache.evictAdmin(updated.getId());
+
+        return updated;
     }
 
     /**
@@ -178,21 +348,171 @@ public class AdminService {
                 new AdminNotFoundException("Admin with id: " + id + " not found"));
     }
 
+    /**
+     * Finds a student by the studentCode on it's badge. A code that was looked up before is
+     * turned into an id by the codeCache and the student is read by id (usually from the second
+     * level cache), otherwise the student is read through the unique index on the code.
+     *
+     * @param code studentCode
+     * @return student with matching code or throws a student not found exception if there's
+     *         no matching code in the database.
+     */
+    public Student findStudentByCode(String code)
+    {
+        UUID uuid = parseCode(code);
+        if(uuid != null)
+        {
+            Long id = codeCache.students().getIfPresent(uuid);
+            //the code of the student may have been changed since it was cached.
+            Optional<Student> student = id == null ? Optional.empty() : studentRepository.findStudentById(id)
+                    .filter(found -> uuid.toString().equals(found.getStudentCode()));
+            if(student.isEmpty())
+            {
+                student = studentRepository.findByStudentCode(uuid.toString());
+                student.ifPresentOrElse(found -> codeCache.students().put(uuid, found.getId()),
+                        () -> codeCache.students().invalidate(uuid));
+            }
+            if(student.isPresent())
+            {
+                return student.get();
+            }
+        }
+
+        throw new StudentNotFoundException("Student with code: " + code + " not found");
+    }
+
+    /**
+     * Finds a teacher by the employeeCode on it's badge, the same way findStudentByCode does it.
+     *
+     * @param code employeeCode
+     * @return teacher with matching code or throws a teacher not found exception if there's
+     *         no matching code in the database.
+     */
+    public Teacher findTeacherByCode(String code)
+    {
+        UUID uuid = parseCode(code);
+        if(uuid != null)
+        {
+            Long id = codeCache.teachers().getIfPresent(uuid);
+            Optional<Teacher> teacher = id == null ? Optional.empty() : teacherRepository.findTeacherById(id)
+                    .filter(found -> uuid.toString().equals(found.getEmployeeCode()));
+            if(teacher.isEmpty())
+            {
+                teacher = teacherRepository.findByEmployeeCode(uuid.toString());
+                teacher.ifPresentOrElse(found -> codeCache.teachers().put(uuid, found.getId()),
+                        () -> codeCache.teachers().invalidate(uuid));
+            }
+            if(teacher.isPresent())
+            {
+                return teacher.get();
+            }
+        }
+
+        throw new TeacherNotFoundException("Teacher with code: " + code + " not found");
+    }
+
+    /**
+     * Finds an admin by the employeeCode on it's badge, the same way findStudentByCode does it.
+     *
+     * @param code employeeCode
+     * @return admin with matching code or throws an admin not found exception if there's
+     *         no matching code in the database.
+     */
+    public Admin findAdminByCode(String code)
+    {
+        UUID uuid = parseCode(code);
+        if(uuid != null)
+        {
+            Long id = codeCache.admins().getIfPresent(uuid);
+            Optional<Admin> admin = id == null ? Optional.empty() : adminRepository.findAdminById(id)
+                    .filter(found -> uuid.toString().equals(found.getEmployeeCode()));
+            if(admin.isEmpty())
+            {
+                admin = adminRepository.findByEmployeeCode(uuid.toString());
+                admin.ifPresentOrElse(found -> codeCache.admins().put(uuid, found.getId()),
+                        () -> codeCache.admins().invalidate(uuid));
+            }
+            if(admin.isPresent())
+            {
+                return admin.get();
+            }
+        }
+
+        throw new AdminNotFoundException("Admin with code: " + code + " not found");
+    }
+
+    //a code that is not a UUID can not be in the database, so it is not looked up.
+    private static UUID parseCode(String code)
+    {
+        try
+        {
+            return UUID.fromString(code);
+        }
+        catch(IllegalArgumentException e)
+        {
+            return null;
+        }
+    }
+
+    //a code that is not a UUID can not be stored (see CodeConverter), so it is turned away before
+    //the flush fails. A valid code is kept in the lowercase form the database gives back.
+    private static String validCode(String code)
+    {
+        if(code == null)
+        {
+            return null;
+        }
+
+        UUID uuid = parseCode(code);
+        if(uuid == null)
+        {
+            throw new InvalidRequestException("Code " + code + " is not a valid UUID");
+        }
+
+        return uuid.toString();
+    }
+
     /**
      * Checks if a teacher with a matching id exists in the database.
-     * If it exists, the teacher will be removed.
+     * If it exists, the teacher will be removed. The classroom of the teacher is kept without a
+     * teacher. Both are done with one statement each, without reading the teacher first.
      *
      * @param id Long
      */
     @Transactional
     public void deleteTeacher(Long id)
     {
+        classroomRepository.removeTeacherFromAllClassrooms(id);
         teacherRepository.deleteTeacherById(id);
+        fullNameCache.evictTeacher(id);
+        entityCacheService.evictTeachers(Collections.singletonList(id));
+    }
+
+    /**
+     * Deletes many teachers at once, with two statements per DELETE_CHUNK_SIZE ids: one that
+     * takes them out of their classrooms and one that deletes them.
+     *
+     * @param ids of the teachers
+     * @return number of teachers that were found and deleted
+     */
+    @Transactional
+    public int deleteTeachers(List<Long> ids)
+    {
+        int deleted = 0;
+        for(List<Long> chunk : Paging.chunks(ids, DELETE_CHUNK_SIZE))
+        {
+            classroomRepository.removeTeachersFromAllClassrooms(chunk);
+            deleted += teacherRepository.deleteByIdIn(chunk);
+            fullNameCache.evictTeachers(chunk);
+            entityCacheService.evictTeachers(chunk);
+        }
+
+        return deleted;
     }
 
     /**
      * Checks if an admin with a matching id exists in the database.
-     * If it exists, the admin will be removed.
+     * If it exists, the admin will be removed with one statement, without reading it first.
      *
      * @param id Long
      */
@@ -200,44 +520,154 @@ public class AdminService {
     public void deleteAdmin(Long id)
     {
         adminRepository.deleteAdminById(id);
+        fullNameCache.evictAdmin(id);
+        entityCacheService.evictAdmins(Collections.singletonList(id));
+    }
+
+    /**
+     * Deletes many admins at once, with one statement per DELETE_CHUNK_SIZE ids.
+     *
+     * @param ids of the admins
+     * @return number of admins that were found and deleted
+     */
+    @Transactional
+    public int deleteAdmins(List<Long> ids)
+    {
+        int deleted = 0;
+        for(List<Long> chunk : Paging.chunks(ids, DELETE_CHUNK_SIZE))
+        {
+            deleted += adminRepository.deleteByIdIn(chunk);
+            fullNameCache.evictAdmins(chunk);
+            entityCacheService.evictAdmins(chunk);
+        }
+
+        return deleted;
     }
 
     /**
      * Checks if the student with the matching id exists in the database, then
-     * it will return the FullName of the student.
+     * it will return the FullName of the student. Only the name and surname are read from the
+     * database, and the result is kept in the fullNameCache.
      *
      * @param id Long
-     * @return concatenated name & surname of student (String)
+     * @return concatenated name & surname of student (String) or throws a student not found
+     *         exception if there's no matching id in the database.
      */
     public String getStudentFullName(Long id)
     {
-        Optional<Student> student = studentRepository.findStudentById(id);
-        return student.get().getFullName();
+        String fullName = fullNameCache.students().get(id, key ->
+                studentRepository.findFullNameById(key).map(FullName::getFullName).orElse(null));
+        if(fullName == null)
+        {
+            throw new StudentNotFoundException("Student with id: " + id + " not found");
+        }
+
+        return fullName;
+    }
+
+    /**
+     * Returns the FullName of every student with a matching id. The names that are not in the
+     * fullNameCache are read from the database with a single query.
+     *
+     * @param ids list of Long
+     * @return concatenated name & surname of the students by id (ids that don't exist are left out)
+     */
+    public Map<Long, String> getStudentFullNames(Collection<Long> ids)
+    {
+        return fullNameCache.students().getAll(withoutNulls(ids), missing ->
+                byId(studentRepository.findFullNamesByIdIn(toList(missing))));
     }
 
     /**
      * Checks if the teacher with the matching id exists in the database, then
-     * it will return the FullName of the teacher.
+     * it will return the FullName of the teacher. Only the name and surname are read from the
+     * database, and the result is kept in the fullNameCache.
      *
      * @param id Long
-     * @return concatenated name & surname of teacher (String)
+     * @return concatenated name & surname of teacher (String) or throws a teacher not found
+     *         exception if there's no matching id in the database.
      */
     public String getTeacherFullName(Long id)
     {
-        Optional<Teacher> teacher = teacherRepository.findTeacherById(id);
-        return teacher.get().getFullName();
+        String fullName = fullNameCache.teachers().get(id, key ->
+                teacherRepository.findFullNameById(key).map(FullName::getFullName).orElse(null));
+        if(fullName == null)
+        {
+            throw new TeacherNotFoundException("Teacher with id: " + id + " not found");
+        }
+
+        return fullName;
+    }
+
+    /**
+     * Returns the FullName of every teacher with a matching id. The names that are not in the
+     * fullNameCache are read from the database with a single query.
+     *
+     * @param ids list of Long
+     * @return concatenated name & surname of the teachers by id (ids that don't exist are left out)
+     */
+    public Map<Long, String> getTeacherFullNames(Collection<Long> ids)
+    {
+        return fullNameCache.teachers().getAll(withoutNulls(ids), missing ->
+                byId(teacherRepository.findFullNamesByIdIn(toList(missing))));
     }
 
     /**
      * Checks if the admin with the matching id exists in the database, then
-     * it will return the FullName of the admin.
+     * it will return the FullName of the admin. Only the name and surname are read from the
+     * database, and the result is kept in the fullNameCache.
      *
      * @param id Long
-     * @return concatenated name & surname of admin (String)
+     * @return concatenated name & surname of admin (String) or throws an admin not found
+     *         exception if there's no matching id in the database.
      */
     public String getAdminFullName(Long id)
     {
-        Optional<Admin> admin = adminRepository.findAdminById(id);
-        return admin.get().getFullName();
+        String fullName = fullNameCache.admins().get(id, key ->
+                adminRepository.findFullNameById(key).map(FullName::getFullName).orElse(null));
+        if(fullName == null)
+        {
+            throw new AdminNotFoundException("Admin with id: " + id + " not found");
+        }
+
+        return fullName;
+    }
+
+    /**
+     * Returns the FullName of every admin with a matching id. The names that are not in the
+     * fullNameCache are read from the database with a single query.
+     *
+     * @param ids list of Long
+     * @return concatenated name & surname of the admins by id (ids that don't exist are left out)
+     */
+    public Map<Long, String> getAdminFullNames(Collection<Long> ids)
+    {
+        return fullNameCache.admins().getAll(withoutNulls(ids), missing ->
+                byId(adminRepository.findFullNamesByIdIn(toList(missing))));
+    }
+
+    //the caches do not accept null keys, a null id can not belong to anyone.
+    private static List<Long> withoutNulls(Collection<Long> ids)
+    {
+        return ids.stream().filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private static List<Long> toList(Iterable<? extends Long> ids)
+    {
+        List<Long> list = new ArrayList<>();
+        ids.forEach(list::add);
+
+        return list;
+    }
+
+    private static Map<Long, String> byId(List<FullName> names)
+    {
+        Map<Long, String> fullNames = new HashMap<>();
+        for(FullName name : names)
+        {
+            fullNames.put(name.getId(), name.getFullName());
+        }
+
+        return fullNames;
     }
 }
@@ -0,0 +1,37 @@
+package com.xgileit.learning.student.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs the changes to the in memory copies of the database (the second level cache, the name
+ * cache and the attendance projection) once the transaction that changed the database has been
+ * committed. A rolled back transaction leaves them as they were, and the old rows can not be
+ * loaded into a cache again before the transaction is over.
+ */
+final class AfterCommit {
+
+    private AfterCommit(){}
+
+    /**
+     * @param action run after the commit of the current transaction, or straight away if there is
+     *               no transaction
+     */
+    static void run(Runnable action)
+    {
+        if(TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit()
+                {
+                    action.run();
+                }
+            });
+        }
+        else
+        {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.model.AttendanceEvent;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * This class adds an AttendanceEvent for every status change, in the transaction of the change.
+ */
+@Component
+public class AttendanceHistory {
+
+    private static final int BATCH_SIZE = 50;
+
+    private final EntityManager entityManager;
+
+    /**
+     * Here I am injecting the entityManager in this class in order to have access to all it's
+     * functionalities.
+     * @param entityManager
+     */
+    public AttendanceHistory(EntityManager entityManager)
+    {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * The events are inserted in JDBC batches of BATCH_SIZE and detached once they are written,
+     * so a bulk update of thousands of students does not keep thousands of events in the
+     * persistence context.
+     *
+     * @param ids of the students whose status changed
+     * @param status new status of the students
+     */
+    public void record(Collection<Long> ids, Status status)
+    {
+        Instant now = Instant.now();
+        record(ids.stream().map(id -> new AttendanceEvent(id, status, now)).collect(Collectors.toList()));
+    }
+
+    /**
+     * Adds events that already have their time, for example the changes accepted by
+     * AttendanceWriteBehind, which happened before they are written.
+     *
+     * @param events new events
+     */
+    public void record(Collection<AttendanceEvent> events)
+    {
+        List<AttendanceEvent> batch = new ArrayList<>(BATCH_SIZE);
+        for(AttendanceEvent event : events)
+        {
+            entityManager.persist(event);
+            batch.add(event);
+
+            if(batch.size() == BATCH_SIZE)
+            {
+                detach(batch);
+            }
+        }
+        detach(batch);
+    }
+
+    private void detach(List<AttendanceEvent> batch)
+    {
+        if(batch.isEmpty())
+        {
+            return;
+        }
+
+        entityManager.flush();
+        batch.forEach(entityManager::detach);
+        batch.clear();
+    }
+}
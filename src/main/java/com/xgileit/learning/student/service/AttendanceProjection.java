@@ -0,0 +1,284 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.repo.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * This class keeps an in memory copy of who is in class, so the attendance counts can be
+ * answered without going to the database.
+ *
+ * It holds the ids of the students with the "IN_CLASS" status and the total number of students.
+ * Every student that is not in the set is counted as "NOT_IN_CLASS". The copy is built from the
+ * database at startup, kept up to date by the methods that change a student's status and
+ * compared with the database on a schedule, in case a change was missed. A change made inside a
+ * transaction is applied once the transaction has been committed (see AfterCommit), so a rolled
+ * back change never reaches the projection.
+ *
+ * The set and the total are replaced together (see Snapshot). While the database is being read
+ * the changes are applied to the current snapshot and also kept aside, they are applied again to
+ * the new snapshot before it replaces the current one, so a change made during a reload is never
+ * lost.
+ */
+@Component
+public class AttendanceProjection {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceProjection.class);
+
+    private final StudentRepository studentRepository;
+    private volatile Snapshot snapshot = new Snapshot(ConcurrentHashMap.newKeySet(), 0);
+
+    //guarded by "this", not null while the database is being read.
+    private List<Consumer<Snapshot>> changesDuringLoad;
+    //one load at a time, the scheduled reconcile may run while the projection is being rebuilt.
+    private final Object loadLock = new Object();
+
+    /**
+     * Here I am injecting the studentRepository in this class in order to have access
+     * to all it's functionalities.
+     * @param studentRepository
+     */
+    public AttendanceProjection(StudentRepository studentRepository)
+    {
+        this.studentRepository = studentRepository;
+    }
+
+    /**
+     * Loads the ids of the students in class and the number of students from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild()
+    {
+        load();
+    }
+
+    /**
+     * Compares the in memory copy with the database and replaces it if they are different.
+     */
+    @Scheduled(fixedDelayString = "${attendance.projection.reconcile-interval:PT5M}",
+            initialDelayString = "${attendance.projection.reconcile-interval:PT5M}")
+    public void reconcile()
+    {
+        Snapshot before = snapshot;
+        Snapshot after = load();
+
+        //compared by content, a student that left class and another one that entered keep the size.
+        if(!before.inClass.equals(after.inClass) || before.total.get() != after.total.get())
+        {
+            log.warn("Attendance projection was out of sync, in class {} -> {}, total {} -> {}",
+                    before.inClass.size(), after.inClass.size(), before.total.get(), after.total.get());
+        }
+    }
+
+    private Snapshot load()
+    {
+        synchronized(loadLock)
+        {
+            return loadSnapshot();
+        }
+    }
+
+    private Snapshot loadSnapshot()
+    {
+        synchronized(this)
+        {
+            changesDuringLoad = new ArrayList<>();
+        }
+
+        Snapshot loaded;
+        try
+        {
+            Set<Long> ids = ConcurrentHashMap.newKeySet();
+            ids.addAll(studentRepository.findIdsByStatus(Status.IN_CLASS));
+            loaded = new Snapshot(ids, studentRepository.count());
+        }
+        catch(RuntimeException e)
+        {
+            synchronized(this)
+            {
+                changesDuringLoad = null;
+            }
+            throw e;
+        }
+
+        synchronized(this)
+        {
+            //the changes are applied in the order they were made, so the latest status wins.
+            changesDuringLoad.forEach(change -> change.accept(loaded));
+            changesDuringLoad = null;
+            snapshot = loaded;
+        }
+
+        return loaded;
+    }
+
+    private void apply(Consumer<Snapshot> change)
+    {
+        AfterCommit.run(() -> applyNow(change));
+    }
+
+    private synchronized void applyNow(Consumer<Snapshot> change)
+    {
+        change.accept(snapshot);
+        if(changesDuringLoad != null)
+        {
+            changesDuringLoad.add(change);
+        }
+    }
+
+    /**
+     * Called when a new student is registered (new students are "NOT_IN_CLASS").
+     *
+     * @param id of the registered student
+     */
+    public void registered(Long id)
+    {
+        apply(current -> current.total.incrementAndGet());
+    }
+
+    /**
+     * Called when many new students are registered at once.
+     *
+     * @param count number of registered students
+     */
+    public void studentsRegistered(int count)
+    {
+        apply(current -> current.total.addAndGet(count));
+    }
+
+    /**
+     * Called after the status of an existing student has been changed. Calling it again with the
+     * same status does not change anything.
+     *
+     * @param id of the student
+     * @param status new status of the student
+     */
+    public void statusChanged(Long id, Status status)
+    {
+        apply(current -> {
+            if(status == Status.IN_CLASS)
+            {
+                current.inClass.add(id);
+            }
+            else
+            {
+                current.inClass.remove(id);
+            }
+        });
+    }
+
+    /**
+     * Called after the status of many existing students has been changed at once.
+     *
+     * @param ids of the students
+     * @param status new status of the students
+     */
+    public void statusChanged(Collection<Long> ids, Status status)
+    {
+        List<Long> changedIds = new ArrayList<>(ids);
+        apply(current -> {
+            if(status == Status.IN_CLASS)
+            {
+                current.inClass.addAll(changedIds);
+            }
+            else
+            {
+                changedIds.forEach(current.inClass::remove);
+            }
+        });
+    }
+
+    /**
+     * Called after a student has been removed from the database.
+     *
+     * @param id of the removed student
+     */
+    public void removed(Long id)
+    {
+        apply(current -> {
+            current.inClass.remove(id);
+            current.total.decrementAndGet();
+        });
+    }
+
+    /**
+     * Called after many students have been removed from the database at once.
+     *
+     * @param ids of the students that were asked to be removed
+     * @param removed number of them that existed and were removed
+     */
+    public void removed(Collection<Long> ids, int removed)
+    {
+        List<Long> removedIds = new ArrayList<>(ids);
+        apply(current -> {
+            removedIds.forEach(current.inClass::remove);
+            current.total.addAndGet(-removed);
+        });
+    }
+
+    /**
+     * @return ids of the students attending class
+     */
+    public Set<Long> studentsInClass()
+    {
+        return Collections.unmodifiableSet(snapshot.inClass);
+    }
+
+    /**
+     * @param status IN_CLASS or NOT_IN_CLASS
+     * @return number of students with the given status
+     */
+    public long count(Status status)
+    {
+        Snapshot current = snapshot;
+        long attending = current.inClass.size();
+
+        return status == Status.IN_CLASS ? attending : Math.max(current.total.get() - attending, 0);
+    }
+
+    /**
+     * @return number of students for every status
+     */
+    public Map<Status, Long> counts()
+    {
+        Map<Status, Long> counts = new EnumMap<>(Status.class);
+        for(Status status : Status.values())
+        {
+            counts.put(status, count(status));
+        }
+
+        return counts;
+    }
+
+    /**
+     * The ids of the students in class and the number of students, read from the database at the
+     * same time.
+     */
+    private static final class Snapshot {
+
+        private final Set<Long> inClass;
+        private final AtomicLong total;
+
+        private Snapshot(Set<Long> inClass, long total)
+        {
+            this.inClass = inClass;
+            this.total = new AtomicLong(total);
+        }
+    }
+}
@@ -0,0 +1,476 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.exception.AttendanceQueueFullException;
+import com.xgileit.learning.student.model.AttendanceEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class lets attendClass and leaveClass return before the new status is in the database
+ * (write behind), for the morning spike where thousands of students check in within seconds.
+ *
+ * Every accepted change is first appended to a local log file with the time it was accepted, so
+ * it survives a crash, and then kept in memory. The database gets the latest status of every
+ * student (a student that checks in and out before the next flush costs one status update) and
+ * an attendance event for every accepted change, with the time it was accepted. The changes are written to the database in batches every
+ * attendance.write-behind.flush-interval, or as soon as attendance.write-behind.batch-size
+ * students are waiting. When attendance.write-behind.capacity students are waiting new students
+ * are turned away with an AttendanceQueueFullException (429) until the next flush.
+ *
+ * With attendance.write-behind.sync the log is forced to the disk before a change is acknowledged.
+ * That is done as a group commit: the changes are appended under the lock, then one thread forces
+ * the log for every change appended so far while the others wait for it outside the lock, so a
+ * spike of check ins costs a few forces instead of one per student. ReentrantLocks are used
+ * instead of synchronized, so a virtual thread waiting for the disk does not pin its carrier.
+ *
+ * A flush renames the log to "<log>.flushing" and starts a new one, the renamed file is deleted
+ * once its changes are in the database. At startup both files are read back, so changes that were
+ * accepted but not written yet are written by the first flush (also when write behind has been
+ * turned off since).
+ */
+@Component
+public class AttendanceWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceWriteBehind.class);
+
+    private final ClassroomService classroomService;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final boolean sync;
+    private final Path logFile;
+    private final Path flushingFile;
+
+    //guards the pending changes, the log channel and the number of lines appended to the log.
+    private final ReentrantLock lock = new ReentrantLock();
+    //the latest status of every waiting student and every change accepted for them.
+    private Map<Long, Status> pending = new HashMap<>();
+    private List<AttendanceEvent> events = new ArrayList<>();
+    private FileChannel channel;
+    private long appended;
+
+    //only one thread forces the log at a time, taken before "lock" when both are needed.
+    private final ReentrantLock forceLock = new ReentrantLock();
+    private volatile long forced;
+
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "attendance-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param classroomService writes the changes to the database
+     * @param enabled false to write every change to the database before returning
+     * @param capacity maximum number of students waiting to be written
+     * @param batchSize number of waiting students that starts a flush without waiting for the timer
+     * @param logFile local file every accepted change is appended to
+     * @param sync false to skip forcing every change to the disk (faster, but a power cut can
+     *             lose the last changes)
+     */
+    public AttendanceWriteBehind(ClassroomService classroomService,
+                                 @Value("${attendance.write-behind.enabled:false}") boolean enabled,
+                                 @Value("${attendance.write-behind.capacity:50000}") int capacity,
+                                 @Value("${attendance.write-behind.batch-size:1000}") int batchSize,
+                                 @Value("${attendance.write-behind.log:attendance-write-behind.log}") Path logFile,
+                                 @Value("${attendance.write-behind.sync:true}") boolean sync)
+    {
+        this.classroomService = classroomService;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.sync = sync;
+        this.logFile = logFile.toAbsolutePath();
+        this.flushingFile = this.logFile.resolveSibling(this.logFile.getFileName() + ".flushing");
+
+        recover();
+    }
+
+    /**
+     * @return true if attendClass and leaveClass should use this class
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Accepting a status change. Once this method returns the change is in the log and will be
+     * written to the database, even if the application stops before the next flush.
+     *
+     * @param id of the student
+     * @param status new status of the student
+     * @throws AttendanceQueueFullException if too many students are waiting to be written
+     */
+    public void accept(Long id, Status status)
+    {
+        long line;
+        int waiting;
+        lock.lock();
+        try
+        {
+            //a student that is already waiting only replaces it's status, so it is always accepted.
+            if(!pending.containsKey(id) && pending.size() >= capacity)
+            {
+                throw new AttendanceQueueFullException("Too many attendance changes are waiting, try again later");
+            }
+
+            AttendanceEvent event = new AttendanceEvent(id, status, Instant.now());
+            line = append(event);
+            pending.put(id, status);
+            events.add(event);
+            waiting = pending.size();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if(sync)
+        {
+            awaitForced(line);
+        }
+
+        if(waiting >= batchSize && flushQueued.compareAndSet(false, true))
+        {
+            flushExecutor.execute(() -> {
+                flushQueued.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * @return number of students waiting to be written to the database
+     */
+    public int pending()
+    {
+        lock.lock();
+        try
+        {
+            return pending.size();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writing the waiting changes to the database with one update per status (see
+     * ClassroomService.updateStatus). If the database can not be reached the changes are put back,
+     * unless the student has changed again in the meantime, and written by the next flush.
+     */
+    @Scheduled(fixedDelayString = "${attendance.write-behind.flush-interval:PT1S}")
+    public void flush()
+    {
+        synchronized(flushLock)
+        {
+            Map<Long, Status> batch;
+            List<AttendanceEvent> batchEvents;
+            forceLock.lock();
+            lock.lock();
+            try
+            {
+                if(pending.isEmpty())
+                {
+                    return;
+                }
+                batch = pending;
+                batchEvents = events;
+                pending = new HashMap<>();
+                events = new ArrayList<>();
+                rotate();
+            }
+            finally
+            {
+                lock.unlock();
+                forceLock.unlock();
+            }
+
+            try
+            {
+                //students that do not exist are skipped by writeAttendance.
+                classroomService.writeAttendance(batch, batchEvents);
+            }
+            catch(RuntimeException e)
+            {
+                log.warn("Writing {} attendance changes failed, they are kept for the next flush", batchEvents.size(), e);
+                requeue(batch, batchEvents);
+            }
+
+            delete(flushingFile);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException
+    {
+        flushExecutor.shutdown();
+        flush();
+        lock.lock();
+        try
+        {
+            if(channel != null)
+            {
+                channel.close();
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The changes are appended to the new log before the old one is deleted, so they are never
+     * only in memory. A student that changed again in the meantime keeps it's newer status, the
+     * events of the batch are all kept.
+     */
+    private void requeue(Map<Long, Status> batch, List<AttendanceEvent> batchEvents)
+    {
+        long line;
+        lock.lock();
+        try
+        {
+            batch.forEach(pending::putIfAbsent);
+            for(AttendanceEvent event : batchEvents)
+            {
+                append(event);
+            }
+            batchEvents.addAll(events);
+            events = batchEvents;
+            line = appended;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if(sync)
+        {
+            awaitForced(line);
+        }
+    }
+
+    /**
+     * Called with "lock" held. The line is only written to the channel, see awaitForced.
+     *
+     * @return number of the line in the log, counted since startup
+     */
+    private long append(AttendanceEvent event)
+    {
+        try
+        {
+            ByteBuffer line = ByteBuffer.wrap(line(event).getBytes(StandardCharsets.US_ASCII));
+            while(line.hasRemaining())
+            {
+                channel.write(line);
+            }
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException("Could not write to " + logFile, e);
+        }
+
+        return ++appended;
+    }
+
+    /**
+     * Returns once the given line is on the disk. The thread that gets the force lock forces every
+     * line appended so far, the threads waiting behind it usually find their line already forced
+     * and return without touching the disk.
+     *
+     * @param line number returned by append
+     */
+    private void awaitForced(long line)
+    {
+        if(forced >= line)
+        {
+            return;
+        }
+
+        forceLock.lock();
+        try
+        {
+            if(forced >= line)
+            {
+                return;
+            }
+
+            long upTo;
+            FileChannel target;
+            lock.lock();
+            try
+            {
+                upTo = appended;
+                target = channel;
+            }
+            finally
+            {
+                lock.unlock();
+            }
+
+            //the channel is not rotated while the force lock is held.
+            target.force(false);
+            forced = upTo;
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException("Could not write to " + logFile, e);
+        }
+        finally
+        {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Called with both locks held. The lines that were not forced yet are forced before the log is
+     * closed, the threads waiting for them find them forced.
+     */
+    private void rotate()
+    {
+        try
+        {
+            if(sync)
+            {
+                channel.force(false);
+                forced = appended;
+            }
+            channel.close();
+            Files.move(logFile, flushingFile, StandardCopyOption.ATOMIC_MOVE);
+            channel = open();
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException("Could not rotate " + logFile, e);
+        }
+    }
+
+    /**
+     * Reading the changes that were accepted before the application stopped (the ".flushing" file
+     * is older than the log). They are written to a new log in one piece before the old files are
+     * removed.
+     */
+    private void recover()
+    {
+        //nothing to recover and nothing will be written.
+        if(!enabled && !Files.exists(logFile) && !Files.exists(flushingFile))
+        {
+            return;
+        }
+
+        try
+        {
+            Files.createDirectories(logFile.getParent());
+
+            List<AttendanceEvent> recovered = new ArrayList<>();
+            read(flushingFile, recovered);
+            read(logFile, recovered);
+
+            Path recoveredFile = logFile.resolveSibling(logFile.getFileName() + ".recovered");
+            StringBuilder lines = new StringBuilder();
+            recovered.forEach(event -> lines.append(line(event)));
+            Files.writeString(recoveredFile, lines, StandardCharsets.US_ASCII);
+            Files.move(recoveredFile, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            delete(flushingFile);
+
+            //a change that was put back after a failed flush can come after a newer change of the
+            //same student in the log, so the latest status is the one accepted last.
+            Map<Long, AttendanceEvent> latest = new HashMap<>();
+            for(AttendanceEvent event : recovered)
+            {
+                latest.merge(event.getStudentId(), event, (current, next) ->
+                        next.getOccurredAt().isBefore(current.getOccurredAt()) ? current : next);
+            }
+            latest.forEach((id, event) -> pending.put(id, event.getStatus()));
+            events.addAll(recovered);
+            channel = open();
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException("Could not recover " + logFile, e);
+        }
+
+        if(!pending.isEmpty())
+        {
+            log.info("Recovered {} attendance changes from {}", pending.size(), logFile);
+        }
+    }
+
+    //a line that was cut off by a crash is skipped, it's change was never acknowledged. A line
+    //without a time was written before the time was logged, it gets the time it is read.
+    private static void read(Path file, List<AttendanceEvent> changes) throws IOException
+    {
+        if(!Files.exists(file))
+        {
+            return;
+        }
+
+        for(String line : Files.readAllLines(file, StandardCharsets.US_ASCII))
+        {
+            String[] parts = line.split(" ");
+            try
+            {
+                Long id = Long.valueOf(parts[0]);
+                Status status = Status.valueOf(parts[1]);
+                Instant acceptedAt = parts.length > 2 ? Instant.parse(parts[2]) : Instant.now();
+                changes.add(new AttendanceEvent(id, status, acceptedAt));
+            }
+            catch(RuntimeException e)
+            {
+                log.warn("Skipping unreadable attendance change '{}' in {}", line, file);
+            }
+        }
+    }
+
+    private static String line(AttendanceEvent event)
+    {
+        return event.getStudentId() + " " + event.getStatus().name() + " " + event.getOccurredAt() + "\n";
+    }
+
+    private FileChannel open() throws IOException
+    {
+        return FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private static void delete(Path file)
+    {
+        try
+        {
+            Files.deleteIfExists(file);
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException("Could not delete " + file, e);
+        }
+    }
+}
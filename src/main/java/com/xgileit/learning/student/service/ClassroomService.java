@@ -1,12 +1,29 @@
 package com.xgileit.learning.student.service;
 
 import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.exception.ClassroomNotFoundException;
+import com.xgileit.learning.student.exception.StudentNotFoundException;
+import com.xgileit.learning.student.exception.TeacherNotFoundException;
+import com.xgileit.learning.student.model.AttendanceEvent;
+import com.xgileit.learning.student.model.Classroom;
 import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.model.Teacher;
+import com.xgileit.learning.student.repo.ClassroomRepository;
 import com.xgileit.learning.student.repo.StudentRepository;
+import com.xgileit.learning.student.repo.TeacherRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * This is the Service class. Here I am implementing all the business logic of this application.
@@ -14,16 +31,185 @@ import java.util.List;
 @Service
 public class ClassroomService {
 
+    /**
+     * Maximum number of ids in the "in" list of one update statement.
+     */
+    private static final int UPDATE_CHUNK_SIZE = 1000;
+
     private final StudentRepository studentRepository;
+    private final TeacherRepository teacherRepository;
+    private final ClassroomRepository classroomRepository;
+    private final AttendanceProjection attendanceProjection;
+    private final AttendanceHistory attendanceHistory;
+    private final EntityCacheService entityCacheService;
 
     /**
-     * Here I am injecting the studentRepository in this class in order to have access
-     * to all it's functionalities.
-     * @param studentRepository
+     * Here I am injecting the studentRepository, teacherRepository, classroomRepository,
+     * attendanceProjection, attendanceHistory and entityCacheService in this class in order to
+     * have access to all it's functionalities.
+     * @param studentRepository, teacherRepository, classroomRepository, attendanceProjection,
+     *        attendanceHistory, entityCacheService
      */
-    public ClassroomService(StudentRepository studentRepository)
+    public ClassroomService(StudentRepository studentRepository, TeacherRepository teacherRepository,
+                            ClassroomRepository classroomRepository, AttendanceProjection attendanceProjection,
+                            AttendanceHistory attendanceHistory, EntityCacheService entityCacheService)
     {
         this.studentRepository = studentRepository;
+        this.teacherRepository = teacherRepository;
+        this.classroomRepository = classroomRepository;
+        this.attendanceProjection = attendanceProjection;
+        this.attendanceHistory = attendanceHistory;
+        this.entityCacheService = entityCacheService;
+    }
+
+    /**
+     * Creating a new classroom without students. A teacher can only have one classroom, so the
+     * teacher is taken away from any other classroom first.
+     *
+     * @param teacherId id of the teacher of the classroom (optional)
+     * @return saved classroom
+     */
+    @Transactional
+    public Classroom createClassroom(Long teacherId)
+    {
+        Teacher teacher = null;
+        if(teacherId != null)
+        {
+            teacher = findTeacher(teacherId);
+            classroomRepository.removeTeacherFromAllClassrooms(teacherId);
+        }
+
+        return classroomRepository.save(new Classroom(teacher, new ArrayList<>()));
+    }
+
+    /**
+     * Giving the classroom a new teacher with a single update, without loading the classroom.
+     *
+     * @param classroomId id of the classroom
+     * @param teacherId id of the teacher
+     */
+    @Transactional
+    public void assignTeacher(Long classroomId, Long teacherId)
+    {
+        requireClassroom(classroomId);
+        findTeacher(teacherId);
+
+        classroomRepository.removeTeacherFromAllClassrooms(teacherId);
+        classroomRepository.updateTeacherById(classroomId, teacherId);
+    }
+
+    /**
+     * Adding one student to the roster with a single insert, the students already in the roster
+     * are not read. A student can only be in one classroom, so the student is taken out of any
+     * other classroom first.
+     *
+     * @param classroomId id of the classroom
+     * @param studentId id of the student
+     */
+    @Transactional
+    public void addStudent(Long classroomId, Long studentId)
+    {
+        requireClassroom(classroomId);
+        if(!studentRepository.existsById(studentId))
+        {
+            throw new StudentNotFoundException("Student with id: " + studentId + " not found");
+        }
+
+        classroomRepository.removeStudentFromAllClassrooms(studentId);
+        classroomRepository.addStudent(classroomId, studentId);
+    }
+
+    /**
+     * Removing one student from the roster with a single delete.
+     *
+     * @param classroomId id of the classroom
+     * @param studentId id of the student
+     * @return false if the student was not in the classroom
+     */
+    @Transactional
+    public boolean removeStudent(Long classroomId, Long studentId)
+    {
+        requireClassroom(classroomId);
+
+        return classroomRepository.removeStudent(classroomId, studentId) > 0;
+    }
+
+    /**
+     * @param classroomId id of the classroom
+     * @param page zero based page number
+     * @param size number of students per page (capped at Paging.MAX_PAGE_SIZE)
+     * @return page of the students in the classroom ordered by id
+     */
+    @Transactional(readOnly = true)
+    public List<Student> getRoster(Long classroomId, int page, int size)
+    {
+        requireClassroom(classroomId);
+
+        return studentRepository.findByClassroomId(classroomId, Paging.of(page, size)).getContent();
+    }
+
+    //findById looks in the second level cache first.
+    private Teacher findTeacher(Long id)
+    {
+        return teacherRepository.findTeacherById(id)
+                .orElseThrow(() -> new TeacherNotFoundException("Teacher with id: " + id + " not found"));
+    }
+
+    private void requireClassroom(Long id)
+    {
+        if(!classroomRepository.existsById(id))
+        {
+            throw new ClassroomNotFoundException("Classroom with id: " + id + " not found");
+        }
+    }
+
+    /**
+     * The classroom is read with it's teacher and students in one statement.
+     *
+     * @param id of the classroom
+     * @return classroom with it's teacher and students
+     */
+    @Transactional(readOnly = true)
+    public Classroom getClassroom(Long id)
+    {
+        return classroomRepository.findWithTeacherAndStudentsById(id)
+                .orElseThrow(() -> new ClassroomNotFoundException("Classroom with id: " + id + " not found"));
+    }
+
+    /**
+     * A page of classrooms costs two statements no matter how many classrooms or students it
+     * holds: one for the ids of the page and one for the classrooms with their teachers and
+     * students.
+     *
+     * @param page zero based page number
+     * @param size number of classrooms per page (capped at Paging.MAX_PAGE_SIZE)
+     * @return page of classrooms ordered by id
+     */
+    @Transactional(readOnly = true)
+    public List<Classroom> getClassroomsPage(int page, int size)
+    {
+        return withTeacherAndStudents(classroomRepository.findIdsBy(Paging.of(page, size)).getContent());
+    }
+
+    /**
+     * @param afterId id of the last classroom the client has already received
+     * @param size number of classrooms to return (capped at Paging.MAX_PAGE_SIZE)
+     * @return classrooms with an id greater than afterId, ordered by id
+     */
+    @Transactional(readOnly = true)
+    public List<Classroom> getClassroomsAfter(Long afterId, int size)
+    {
+        return withTeacherAndStudents(classroomRepository.findIdsByIdGreaterThan(afterId, Paging.first(size)));
+    }
+
+    private List<Classroom> withTeacherAndStudents(List<Long> ids)
+    {
+        if(ids.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+
+        return classroomRepository.findWithTeacherAndStudentsByIdIn(ids);
     }
 
     /**
@@ -49,44 +235,153 @@ public class ClassroomService {
     }
 
     /**
-     * Using a for loop to iterate over all the students in the database. Then extracting
-     * those whose status is "IN_CLASS", and placing them in an arraylist.
+     * Changing the status of all the given students with set based update statements (one per
+     * UPDATE_CHUNK_SIZE ids) instead of saving every student on it's own.
      *
-     * @return list of students with "IN_CLASS" status
+     * @param ids of the students
+     * @param status IN_CLASS or NOT_IN_CLASS
+     * @return number of students found with the given ids
      */
-    public List<Student> studentsAttendingClass()
+    @Transactional
+    public int updateStatus(Collection<Long> ids, Status status)
     {
-        List<Student> students = new ArrayList<>();
+        return updateStatus(ids, status, updated -> attendanceHistory.record(updated, status));
+    }
 
-        for(Student student : studentRepository.findAll())
+    /**
+     * Writing the changes accepted by AttendanceWriteBehind. Every student gets the latest status
+     * accepted for it (one update per status, see updateStatus). Every accepted change becomes an
+     * event with the time it was accepted, so a student that checked in and out before the flush
+     * still has both events. The changes of students that do not exist are skipped.
+     *
+     * @param statuses latest accepted status of every student
+     * @param events every accepted change
+     * @return number of students found
+     */
+    @Transactional
+    public int writeAttendance(Map<Long, Status> statuses, Collection<AttendanceEvent> events)
+    {
+        Map<Status, List<Long>> byStatus = new EnumMap<>(Status.class);
+        statuses.forEach((id, status) -> byStatus.computeIfAbsent(status, key -> new ArrayList<>()).add(id));
+
+        Set<Long> found = new HashSet<>();
+        int changed = 0;
+        for(Map.Entry<Status, List<Long>> entry : byStatus.entrySet())
         {
-            if(student.getStatus() == Status.IN_CLASS)
-            {
-                students.add(student);
-            }
+            changed += updateStatus(entry.getValue(), entry.getKey(), found::addAll);
         }
+        attendanceHistory.record(events.stream().filter(event -> found.contains(event.getStudentId()))
+                .collect(Collectors.toList()));
+
+        return changed;
+    }
 
-        return students;
+    //the ids of the students that were found are handed to updatedStudents, chunk by chunk.
+    private int updateStatus(Collection<Long> ids, Status status, Consumer<List<Long>> updatedStudents)
+    {
+        int changed = 0;
+        for(List<Long> chunk : Paging.chunks(ids, UPDATE_CHUNK_SIZE))
+        {
+            int matched = studentRepository.updateStatusByIdIn(chunk, status);
+            changed += matched;
+
+            //only the ids of existing students may end up in the attendance projection.
+            List<Long> updated = matched == chunk.size() ? chunk : studentRepository.findIdsByIdIn(chunk);
+            attendanceProjection.statusChanged(updated, status);
+            updatedStudents.accept(updated);
+            entityCacheService.evictStudents(updated);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Setting the status of every student in the classroom to "IN_CLASS".
+     *
+     * @param classroomId id of the classroom
+     * @return number of students in the classroom
+     */
+    @Transactional
+    public int startClass(Long classroomId)
+    {
+        return updateStatus(studentRepository.findIdsByClassroomId(classroomId), Status.IN_CLASS);
+    }
+
+    /**
+     * Setting the status of every student in the classroom to "NOT_IN_CLASS".
+     *
+     * @param classroomId id of the classroom
+     * @return number of students in the classroom
+     */
+    @Transactional
+    public int endClass(Long classroomId)
+    {
+        return updateStatus(studentRepository.findIdsByClassroomId(classroomId), Status.NOT_IN_CLASS);
     }
 
     /**
-     * Using a for loop to iterate over all the students in the database. Then extracting
-     * those whose status is "NOT_IN_CLASS", and placing them in an arraylist.
+     * Asking the database for the students whose status is "IN_CLASS". The status column is
+     * indexed, so the other students are never loaded.
+     *
+     * @return list of students with "IN_CLASS" status
+     */
+    public List<Student> studentsAttendingClass()
+    {
+        return studentRepository.findByStatus(Status.IN_CLASS);
+    }
+
+    /**
+     * Same as above, but only returns one page of the students ordered by id.
+     *
+     * @param page zero based page number
+     * @param size number of students per page (capped at Paging.MAX_PAGE_SIZE)
+     * @return page of students with "IN_CLASS" status
+     */
+    public List<Student> studentsAttendingClass(int page, int size)
+    {
+        return studentRepository.findByStatus(Status.IN_CLASS, Paging.of(page, size)).getContent();
+    }
+
+    /**
+     * Asking the database for the students whose status is "NOT_IN_CLASS". The status column is
+     * indexed, so the other students are never loaded.
      *
      * @return list of students with "NOT_IN_CLASS" status
      */
     public List<Student> studentsNotAttendingClass()
     {
-        List<Student> students = new ArrayList<>();
+        return studentRepository.findByStatus(Status.NOT_IN_CLASS);
+    }
 
-        for(Student student : studentRepository.findAll())
-        {
-            if(student.getStatus() == Status.NOT_IN_CLASS)
-            {
-                students.add(student);
-            }
-        }
+    /**
+     * Same as above, but only returns one page of the students ordered by id.
+     *
+     * @param page zero based page number
+     * @param size number of students per page (capped at Paging.MAX_PAGE_SIZE)
+     * @return page of students with "NOT_IN_CLASS" status
+     */
+    public List<Student> studentsNotAttendingClass(int page, int size)
+    {
+        return studentRepository.findByStatus(Status.NOT_IN_CLASS, Paging.of(page, size)).getContent();
+    }
+
+    /**
+     * Answered from the attendance projection, so the database is not used.
+     *
+     * @return ids of the students with "IN_CLASS" status
+     */
+    public Set<Long> idsOfStudentsAttendingClass()
+    {
+        return attendanceProjection.studentsInClass();
+    }
 
-        return students;
+    /**
+     * Answered from the attendance projection, so the database is not used.
+     *
+     * @return number of students for every status
+     */
+    public Map<Status, Long> attendanceCounts()
+    {
+        return attendanceProjection.counts();
     }
 }
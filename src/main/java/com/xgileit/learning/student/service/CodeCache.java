@@ -0,0 +1,72 @@
+package com.xgileit.learning.student.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * This class keeps the ids of the students, teachers and admins whose studentCode or employeeCode
+ * was looked up recently (by the badge scanners). A code that is in the cache is turned into an
+ * id without going to the database, the student, teacher or admin itself is then usually in the
+ * second level cache.
+ *
+ * The caches are bounded (codes.cache.maximum-size per cache) and entries expire
+ * (codes.cache.expiry). The codes are kept as UUIDs, which take less memory than their text form.
+ * An entry can be out of date when the code of an object is changed, so the code of the object
+ * read by id is always compared with the code that was looked up (see AdminService).
+ */
+@Component
+public class CodeCache {
+
+    private final Cache<UUID, Long> students;
+    private final Cache<UUID, Long> teachers;
+    private final Cache<UUID, Long> admins;
+
+    /**
+     * @param maximumSize maximum number of codes in each cache
+     * @param expiry how long a code stays in the cache
+     */
+    public CodeCache(@Value("${codes.cache.maximum-size:50000}") long maximumSize,
+                     @Value("${codes.cache.expiry:PT1H}") Duration expiry)
+    {
+        this.students = create(maximumSize, expiry);
+        this.teachers = create(maximumSize, expiry);
+        this.admins = create(maximumSize, expiry);
+    }
+
+    private static Cache<UUID, Long> create(long maximumSize, Duration expiry)
+    {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expiry)
+                .build();
+    }
+
+    /**
+     * @return ids of the students by studentCode
+     */
+    public Cache<UUID, Long> students()
+    {
+        return students;
+    }
+
+    /**
+     * @return ids of the teachers by employeeCode
+     */
+    public Cache<UUID, Long> teachers()
+    {
+        return teachers;
+    }
+
+    /**
+     * @return ids of the admins by employeeCode
+     */
+    public Cache<UUID, Long> admins()
+    {
+        return admins;
+    }
+}
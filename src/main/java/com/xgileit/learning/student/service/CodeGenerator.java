@@ -0,0 +1,16 @@
+package com.xgileit.learning.student.service;
+
+/**
+ * This interface creates the studentCode and employeeCode given to new students, teachers and
+ * admins. The codes are UUIDs in their text form, they are stored as 16 bytes (see CodeConverter).
+ *
+ * codes.generator picks the implementation: "time-ordered" (the default, see
+ * TimeOrderedCodeGenerator) or "random" (see RandomCodeGenerator).
+ */
+public interface CodeGenerator {
+
+    /**
+     * @return new code, different from every code returned before
+     */
+    String next();
+}
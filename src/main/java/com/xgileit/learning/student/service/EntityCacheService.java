@@ -0,0 +1,117 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.model.Admin;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.model.Teacher;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This is the Service class for the second level cache of the Student, Teacher and Admin
+ * entities (configured in application.properties and application.conf).
+ *
+ * Saving or deleting an entity updates the cache on it's own. The status updates and the deletes
+ * are written in SQL instead, so they evict the students, teachers and admins they changed through
+ * this class.
+ */
+@Service
+public class EntityCacheService {
+
+    /**
+     * Names of the cache regions, as set in the @Cache annotation of the entities.
+     */
+    private static final String[] REGIONS = {"student", "teacher", "admin"};
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Here I am injecting the entityManagerFactory in this class in order to have access
+     * to all it's functionalities.
+     * @param entityManagerFactory
+     */
+    public EntityCacheService(EntityManagerFactory entityManagerFactory)
+    {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Removes the given students from the cache. If a transaction is running, this is done once
+     * it has been committed, so the old row cannot be loaded into the cache again in the
+     * meantime.
+     *
+     * @param ids of the students
+     */
+    public void evictStudents(Collection<Long> ids)
+    {
+        evictAfterCommit(Student.class, ids);
+    }
+
+    /**
+     * Same as evictStudents, for teachers.
+     *
+     * @param ids of the teachers
+     */
+    public void evictTeachers(Collection<Long> ids)
+    {
+        evictAfterCommit(Teacher.class, ids);
+    }
+
+    /**
+     * Same as evictStudents, for admins.
+     *
+     * @param ids of the admins
+     */
+    public void evictAdmins(Collection<Long> ids)
+    {
+        evictAfterCommit(Admin.class, ids);
+    }
+
+    private void evictAfterCommit(Class<?> entity, Collection<Long> ids)
+    {
+        List<Long> evicted = new ArrayList<>(ids);
+        AfterCommit.run(() -> evict(entity, evicted));
+    }
+
+    private void evict(Class<?> entity, Collection<Long> ids)
+    {
+        Cache cache = entityManagerFactory.getCache();
+        for(Long id : ids)
+        {
+            cache.evict(entity, id);
+        }
+    }
+
+    /**
+     * The numbers are only counted when hibernate.generate_statistics is enabled.
+     *
+     * @return hits, misses and puts of every cache region
+     */
+    public Map<String, Map<String, Long>> statistics()
+    {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Map<String, Long>> regions = new LinkedHashMap<>();
+        for(String region : REGIONS)
+        {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+
+            Map<String, Long> counts = new LinkedHashMap<>();
+            counts.put("hits", regionStatistics.getHitCount());
+            counts.put("misses", regionStatistics.getMissCount());
+            counts.put("puts", regionStatistics.getPutCount());
+            regions.put(region, counts);
+        }
+
+        return regions;
+    }
+}
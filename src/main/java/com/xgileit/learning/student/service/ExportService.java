@@ -0,0 +1,187 @@
+package com.xgileit.learning.student.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.model.Admin;
+import com.xgileit.learning.student.model.AttendanceEvent;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.model.Teacher;
+import com.xgileit.learning.student.repo.AdminRepository;
+import com.xgileit.learning.student.repo.AttendanceEventRepository;
+import com.xgileit.learning.student.repo.StudentRepository;
+import com.xgileit.learning.student.repo.TeacherRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * This is the Service class for the exports. Every row is written to the output as one line of
+ * JSON (newline delimited JSON) as soon as it is read from the database, so the memory used by an
+ * export stays the same no matter how big the table is.
+ */
+@Service
+public class ExportService {
+
+    /**
+     * The output is flushed to the client after this many rows.
+     */
+    private static final int FLUSH_INTERVAL = 500;
+
+    private final StudentRepository studentRepository;
+    private final TeacherRepository teacherRepository;
+    private final AdminRepository adminRepository;
+    private final AttendanceEventRepository attendanceEventRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter writer;
+
+    /**
+     * Here I am injecting the repositories, the entityManager and the objectMapper in this class
+     * in order to have access to all it's functionalities.
+     * @param studentRepository, teacherRepository, adminRepository, attendanceEventRepository,
+     *        entityManager, objectMapper
+     */
+    public ExportService(StudentRepository studentRepository, TeacherRepository teacherRepository,
+                         AdminRepository adminRepository, AttendanceEventRepository attendanceEventRepository,
+                         EntityManager entityManager, ObjectMapper objectMapper)
+    {
+        this.studentRepository = studentRepository;
+        this.teacherRepository = teacherRepository;
+        this.adminRepository = adminRepository;
+        this.attendanceEventRepository = attendanceEventRepository;
+        this.entityManager = entityManager;
+        //flushing is done every FLUSH_INTERVAL rows instead of after every single row.
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes every student in the database to the output.
+     *
+     * @param output stream of the response
+     */
+    @Transactional(readOnly = true)
+    public void exportStudents(OutputStream output) throws IOException
+    {
+        try(Stream<Student> students = studentRepository.streamAll())
+        {
+            write(students, output);
+        }
+    }
+
+    /**
+     * Writes every student with the given status to the output.
+     *
+     * @param status IN_CLASS or NOT_IN_CLASS
+     * @param output stream of the response
+     */
+    @Transactional(readOnly = true)
+    public void exportStudents(Status status, OutputStream output) throws IOException
+    {
+        try(Stream<Student> students = studentRepository.streamByStatus(status))
+        {
+            write(students, output);
+        }
+    }
+
+    /**
+     * Writes every teacher in the database to the output.
+     *
+     * @param output stream of the response
+     */
+    @Transactional(readOnly = true)
+    public void exportTeachers(OutputStream output) throws IOException
+    {
+        try(Stream<Teacher> teachers = teacherRepository.streamAll())
+        {
+            write(teachers, output);
+        }
+    }
+
+    /**
+     * Writes every admin in the database to the output.
+     *
+     * @param output stream of the response
+     */
+    @Transactional(readOnly = true)
+    public void exportAdmins(OutputStream output) throws IOException
+    {
+        try(Stream<Admin> admins = adminRepository.streamAll())
+        {
+            write(admins, output);
+        }
+    }
+
+    /**
+     * Writes the attendance events of one student in the given time range, oldest first.
+     *
+     * @param studentId id of the student
+     * @param from start of the range (inclusive)
+     * @param to end of the range (exclusive)
+     * @param output stream of the response
+     */
+    @Transactional(readOnly = true)
+    public void exportAttendance(Long studentId, Instant from, Instant to, OutputStream output) throws IOException
+    {
+        try(Stream<AttendanceEvent> events = attendanceEventRepository.streamByStudentId(studentId, from, to))
+        {
+            write(events, output);
+        }
+    }
+
+    /**
+     * Writes the attendance events of every student in the given time range, oldest first.
+     *
+     * @param from start of the range (inclusive)
+     * @param to end of the range (exclusive)
+     * @param output stream of the response
+     */
+    @Transactional(readOnly = true)
+    public void exportAttendance(Instant from, Instant to, OutputStream output) throws IOException
+    {
+        try(Stream<AttendanceEvent> events = attendanceEventRepository.streamByOccurredAt(from, to))
+        {
+            write(events, output);
+        }
+    }
+
+    /**
+     * Writes one JSON object per line. Every row is detached once it is written, otherwise the
+     * persistence context would keep a reference to every row of the table until the end of the
+     * transaction.
+     *
+     * @param rows stream of entities
+     * @param output stream of the response
+     */
+    private void write(Stream<?> rows, OutputStream output) throws IOException
+    {
+        JsonGenerator generator = writer.getFactory().createGenerator(output);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        //the line breaks are written below, so no separator is needed between the rows.
+        generator.setRootValueSeparator(null);
+
+        int count = 0;
+        Iterator<?> iterator = rows.iterator();
+        while(iterator.hasNext())
+        {
+            Object row = iterator.next();
+            writer.writeValue(generator, row);
+            generator.writeRaw('\n');
+            entityManager.detach(row);
+
+            if(++count % FLUSH_INTERVAL == 0)
+            {
+                generator.flush();
+            }
+        }
+
+        generator.flush();
+    }
+}
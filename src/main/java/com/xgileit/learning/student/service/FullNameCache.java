@@ -0,0 +1,140 @@
+package com.xgileit.learning.student.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class keeps the full names of the students, teachers and admins that were asked for
+ * recently, so the display labels of the UI do not need a database query every time.
+ *
+ * The caches are bounded (names.cache.maximum-size per cache) and entries expire
+ * (names.cache.expiry) in case a change is made outside of this service. The services remove a
+ * name from the cache when they update or delete the object it belongs to, once the change has
+ * been committed (see AfterCommit). A name removed earlier could be read again from the old row
+ * and cached until it expires.
+ */
+@Component
+public class FullNameCache {
+
+    private final Cache<Long, String> students;
+    private final Cache<Long, String> teachers;
+    private final Cache<Long, String> admins;
+
+    /**
+     * @param maximumSize maximum number of names in each cache
+     * @param expiry how long a name stays in the cache
+     */
+    public FullNameCache(@Value("${names.cache.maximum-size:10000}") long maximumSize,
+                         @Value("${names.cache.expiry:PT10M}") Duration expiry)
+    {
+        this.students = create(maximumSize, expiry);
+        this.teachers = create(maximumSize, expiry);
+        this.admins = create(maximumSize, expiry);
+    }
+
+    private static Cache<Long, String> create(long maximumSize, Duration expiry)
+    {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expiry)
+                .build();
+    }
+
+    /**
+     * @return full names of the students by id
+     */
+    public Cache<Long, String> students()
+    {
+        return students;
+    }
+
+    /**
+     * @return full names of the teachers by id
+     */
+    public Cache<Long, String> teachers()
+    {
+        return teachers;
+    }
+
+    /**
+     * @return full names of the admins by id
+     */
+    public Cache<Long, String> admins()
+    {
+        return admins;
+    }
+
+    /**
+     * Removes the names of the given students once the current transaction has been committed.
+     *
+     * @param ids of the students
+     */
+    public void evictStudents(Collection<Long> ids)
+    {
+        evictAfterCommit(students, ids);
+    }
+
+    /**
+     * Same as evictStudents, for one student.
+     *
+     * @param id of the student
+     */
+    public void evictStudent(Long id)
+    {
+        evictAfterCommit(students, Collections.singletonList(id));
+    }
+
+    /**
+     * Same as evictStudents, for teachers.
+     *
+     * @param ids of the teachers
+     */
+    public void evictTeachers(Collection<Long> ids)
+    {
+        evictAfterCommit(teachers, ids);
+    }
+
+    /**
+     * Same as evictStudents, for one teacher.
+     *
+     * @param id of the teacher
+     */
+    public void evictTeacher(Long id)
+    {
+        evictAfterCommit(teachers, Collections.singletonList(id));
+    }
+
+    /**
+     * Same as evictStudents, for admins.
+     *
+     * @param ids of the admins
+     */
+    public void evictAdmins(Collection<Long> ids)
+    {
+        evictAfterCommit(admins, ids);
+    }
+
+    /**
+     * Same as evictStudents, for one admin.
+     *
+     * @param id of the admin
+     */
+    public void evictAdmin(Long id)
+    {
+        evictAfterCommit(admins, Collections.singletonList(id));
+    }
+
+    private static void evictAfterCommit(Cache<Long, String> cache, Collection<Long> ids)
+    {
+        List<Long> evicted = new ArrayList<>(ids);
+        AfterCommit.run(() -> cache.invalidateAll(evicted));
+    }
+}
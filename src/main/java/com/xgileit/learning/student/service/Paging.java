@@ -0,0 +1,88 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.exception.InvalidRequestException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * This class builds the page requests used by the listing methods in this student management
+ * service. Every page is ordered by id, so the same page always returns the same rows, and the
+ * page size is capped so a single request can never pull the whole table.
+ *
+ * It also splits the ids sent to the bulk updates and deletes in chunks, so a single statement
+ * never holds more ids than the database accepts in an "in" list.
+ */
+public final class Paging {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private Paging(){}
+
+    /**
+     * Negative page numbers are treated as the first page and the size is kept between 1 and
+     * MAX_PAGE_SIZE.
+     *
+     * @param page zero based page number
+     * @param size requested number of rows
+     * @return page request ordered by id
+     */
+    public static Pageable of(int page, int size)
+    {
+        return PageRequest.of(Math.max(page, 0), limit(size), Sort.by("id"));
+    }
+
+    /**
+     * Used by the keyset ("after id") queries, which already order by id and only ever need the
+     * first page of the rows following the cursor.
+     *
+     * @param size requested number of rows
+     * @return first page request without sorting
+     */
+    public static Pageable first(int size)
+    {
+        return PageRequest.of(0, limit(size));
+    }
+
+    /**
+     * @param size requested number of rows
+     * @return size kept between 1 and MAX_PAGE_SIZE
+     */
+    public static int limit(int size)
+    {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Null and repeated ids are left out, the order of the other ids is kept.
+     *
+     * @param ids requested ids
+     * @param size maximum number of ids per chunk
+     * @return the distinct ids, split in lists of at most size ids
+     * @throws InvalidRequestException if there is no list of ids at all
+     */
+    public static List<List<Long>> chunks(Collection<Long> ids, int size)
+    {
+        if(ids == null)
+        {
+            throw new InvalidRequestException("A list of ids is required");
+        }
+
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+
+        List<List<Long>> chunks = new ArrayList<>();
+        for(int from = 0; from < distinctIds.size(); from += size)
+        {
+            chunks.add(distinctIds.subList(from, Math.min(from + size, distinctIds.size())));
+        }
+
+        return chunks;
+    }
+}
@@ -0,0 +1,22 @@
+package com.xgileit.learning.student.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Random (version 4) UUIDs, the way the codes were created before TimeOrderedCodeGenerator.
+ * Every code goes through the one SecureRandom UUID.randomUUID shares, and the codes land on
+ * random places in the unique indexes on the code columns.
+ */
+@Component
+@ConditionalOnProperty(name = "codes.generator", havingValue = "random")
+public class RandomCodeGenerator implements CodeGenerator {
+
+    @Override
+    public String next()
+    {
+        return UUID.randomUUID().toString();
+    }
+}
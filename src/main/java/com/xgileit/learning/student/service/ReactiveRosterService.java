@@ -0,0 +1,72 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.model.Admin;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.model.Teacher;
+import com.xgileit.learning.student.repo.reactive.ReactiveAdminRepository;
+import com.xgileit.learning.student.repo.reactive.ReactiveStudentRepository;
+import com.xgileit.learning.student.repo.reactive.ReactiveTeacherRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+/**
+ * This is the Service class for the reactive read path. Nothing is read until the client
+ * subscribes and the rows are read as fast as the client takes them (backpressure), the blocking
+ * list endpoints in TeacherController and AdminController are not changed.
+ */
+@Service
+public class ReactiveRosterService {
+
+    private final ReactiveStudentRepository studentRepository;
+    private final ReactiveTeacherRepository teacherRepository;
+    private final ReactiveAdminRepository adminRepository;
+
+    /**
+     * Here I am injecting the reactive repositories in this class in order to have access to all
+     * it's functionalities.
+     * @param studentRepository, teacherRepository, adminRepository
+     */
+    public ReactiveRosterService(ReactiveStudentRepository studentRepository,
+                                 ReactiveTeacherRepository teacherRepository,
+                                 ReactiveAdminRepository adminRepository)
+    {
+        this.studentRepository = studentRepository;
+        this.teacherRepository = teacherRepository;
+        this.adminRepository = adminRepository;
+    }
+
+    /**
+     * @param status IN_CLASS or NOT_IN_CLASS, null for every student
+     * @return students ordered by id
+     */
+    public Flux<Student> students(Status status)
+    {
+        return status == null ? studentRepository.streamAll() : studentRepository.streamByStatus(status.ordinal());
+    }
+
+    /**
+     * @param classroomId id of the classroom
+     * @return students in the classroom ordered by id
+     */
+    public Flux<Student> roster(Long classroomId)
+    {
+        return studentRepository.streamByClassroomId(classroomId);
+    }
+
+    /**
+     * @return teachers ordered by id
+     */
+    public Flux<Teacher> teachers()
+    {
+        return teacherRepository.streamAll();
+    }
+
+    /**
+     * @return admins ordered by id
+     */
+    public Flux<Admin> admins()
+    {
+        return adminRepository.streamAll();
+    }
+}
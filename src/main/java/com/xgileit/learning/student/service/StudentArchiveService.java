@@ -0,0 +1,212 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.exception.StudentNotFoundException;
+import com.xgileit.learning.student.model.ArchivedStudent;
+import com.xgileit.learning.student.repo.ArchivedStudentRepository;
+import com.xgileit.learning.student.repo.ClassroomRepository;
+import com.xgileit.learning.student.repo.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * This is the Service class for the graduated students.
+ *
+ * A student that graduates is only marked (soft deleted), so it disappears from every query on the
+ * student table straight away. Once it has been graduated for students.archive.after it is moved
+ * to the student_archive table by a background job, in batches of students.archive.batch-size with
+ * a transaction per batch, so the student table and it's indexes only hold the active students and
+ * the job never locks many rows at a time. The archive is read through the methods below.
+ */
+@Service
+public class StudentArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentArchiveService.class);
+
+    /**
+     * Maximum number of ids in one graduation statement.
+     */
+    private static final int GRADUATION_CHUNK_SIZE = 1000;
+
+    private final StudentRepository studentRepository;
+    private final ClassroomRepository classroomRepository;
+    private final ArchivedStudentRepository archivedStudentRepository;
+    private final AttendanceProjection attendanceProjection;
+    private final EntityCacheService entityCacheService;
+    private final FullNameCache fullNameCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration archiveAfter;
+    private final int batchSize;
+
+    /**
+     * Here I am injecting the studentRepository, classroomRepository, archivedStudentRepository,
+     * attendanceProjection, entityCacheService, fullNameCache and transactionTemplate in this class
+     * in order to have access to all it's functionalities.
+     * @param studentRepository, classroomRepository, archivedStudentRepository, attendanceProjection,
+     *        entityCacheService, fullNameCache, transactionTemplate
+     * @param archiveAfter how long a student stays in the student table after graduating
+     * @param batchSize number of students moved to the archive per transaction
+     */
+    public StudentArchiveService(StudentRepository studentRepository, ClassroomRepository classroomRepository,
+                                 ArchivedStudentRepository archivedStudentRepository,
+                                 AttendanceProjection attendanceProjection, EntityCacheService entityCacheService,
+                                 FullNameCache fullNameCache, TransactionTemplate transactionTemplate,
+                                 @Value("${students.archive.after:P30D}") Duration archiveAfter,
+                                 @Value("${students.archive.batch-size:1000}") int batchSize)
+    {
+        this.studentRepository = studentRepository;
+        this.classroomRepository = classroomRepository;
+        this.archivedStudentRepository = archivedStudentRepository;
+        this.attendanceProjection = attendanceProjection;
+        this.entityCacheService = entityCacheService;
+        this.fullNameCache = fullNameCache;
+        this.transactionTemplate = transactionTemplate;
+        this.archiveAfter = archiveAfter;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Marks the students as graduated and takes them out of their classrooms, with two statements
+     * per GRADUATION_CHUNK_SIZE ids. Unknown and already graduated students are skipped.
+     *
+     * @param ids of the students
+     * @return number of students that graduated
+     */
+    @Transactional
+    public int graduateStudents(List<Long> ids)
+    {
+        Instant now = Instant.now();
+
+        int graduated = 0;
+        for(List<Long> chunk : Paging.chunks(ids, GRADUATION_CHUNK_SIZE))
+        {
+            classroomRepository.removeStudentsFromAllClassrooms(chunk);
+            int updated = studentRepository.graduateByIdIn(chunk, now);
+            graduated += updated;
+
+            //graduated students are no longer counted.
+            attendanceProjection.removed(chunk, updated);
+            fullNameCache.evictStudents(chunk);
+            entityCacheService.evictStudents(chunk);
+        }
+
+        return graduated;
+    }
+
+    /**
+     * Moves the students that graduated more than students.archive.after ago to the archive.
+     */
+    @Scheduled(fixedDelayString = "${students.archive.interval:PT1H}",
+            initialDelayString = "${students.archive.interval:PT1H}")
+    public void archiveGraduated()
+    {
+        int archived = archive(Instant.now().minus(archiveAfter));
+
+        if(archived > 0)
+        {
+            log.info("Moved {} graduated students to the archive", archived);
+        }
+    }
+
+    /**
+     * Moves the students that graduated before the given time to the archive, oldest first. Every
+     * batch is copied and deleted with a statement each, in it's own transaction, so a failure
+     * only rolls back the batch it happened in and the next run carries on from there.
+     *
+     * @param graduatedBefore only students that graduated before this time are moved
+     * @return number of students moved to the archive
+     */
+    public int archive(Instant graduatedBefore)
+    {
+        int archived = 0;
+        int moved;
+        do
+        {
+            moved = transactionTemplate.execute(status -> {
+                List<Long> ids = studentRepository.findGraduatedIds(graduatedBefore, batchSize);
+                if(ids.isEmpty())
+                {
+                    return 0;
+                }
+
+                archivedStudentRepository.copyFromStudents(ids, Instant.now());
+                return studentRepository.deleteByIdIn(ids);
+            });
+            archived += moved;
+        }
+        while(moved == batchSize);
+
+        return archived;
+    }
+
+    /**
+     * @param id the student had before it was archived
+     * @return archived student or throws a student not found exception if there's no matching id
+     *         in the archive.
+     */
+    @Transactional(readOnly = true)
+    public ArchivedStudent findArchivedStudent(Long id)
+    {
+        return archivedStudentRepository.findById(id).orElseThrow(() ->
+                new StudentNotFoundException("Archived student with id: " + id + " not found"));
+    }
+
+    /**
+     * @param code studentCode of the student
+     * @return archived student or throws a student not found exception if there's no matching code
+     *         in the archive.
+     */
+    @Transactional(readOnly = true)
+    public ArchivedStudent findArchivedStudentByCode(String code)
+    {
+        //a code that is not a UUID can not be in the archive, so it is not looked up.
+        Optional<ArchivedStudent> student;
+        try
+        {
+            student = archivedStudentRepository.findByStudentCode(UUID.fromString(code).toString());
+        }
+        catch(IllegalArgumentException e)
+        {
+            student = Optional.empty();
+        }
+
+        return student.orElseThrow(() ->
+                new StudentNotFoundException("Archived student with code: " + code + " not found"));
+    }
+
+    /**
+     * @param afterId id of the last archived student already received
+     * @param size number of archived students
+     * @return archived students following the given id, ordered by id
+     */
+    @Transactional(readOnly = true)
+    public List<ArchivedStudent> getArchivedStudentsAfter(Long afterId, int size)
+    {
+        return archivedStudentRepository.findByIdGreaterThanOrderByIdAsc(afterId, Paging.first(size));
+    }
+
+    /**
+     * @param from start of the range (inclusive)
+     * @param to end of the range (exclusive)
+     * @param page zero based page number
+     * @param size number of archived students per page
+     * @return archived students that graduated in the given time range, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<ArchivedStudent> getArchivedStudentsGraduated(Instant from, Instant to, int page, int size)
+    {
+        return archivedStudentRepository.findByGraduatedAt(from, to,
+                PageRequest.of(Math.max(page, 0), Paging.limit(size)));
+    }
+}
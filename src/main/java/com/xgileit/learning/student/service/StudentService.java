@@ -1,9 +1,16 @@
 package com.xgileit.learning.student.service;
 
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.exception.StudentNotFoundException;
 import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.repo.ClassroomRepository;
 import com.xgileit.learning.student.repo.StudentRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
 
 /**
  * This is the Service class. Here I am implementing all the business logic of this application.
@@ -11,56 +18,168 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class StudentService {
 
+    /**
+     * Maximum number of ids in one delete statement.
+     */
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
     private final ClassroomService classroomService;
     private final StudentRepository studentRepository;
+    private final ClassroomRepository classroomRepository;
+    private final AttendanceProjection attendanceProjection;
+    private final EntityCacheService entityCacheService;
+    private final FullNameCache fullNameCache;
+    private final AttendanceWriteBehind attendanceWriteBehind;
+    private final AttendanceHistory attendanceHistory;
+    private final TransactionTemplate transactionTemplate;
 
     /**
-     * Here I am injecting the classroomService and studentRepository in this
-     * class in order to have access to all it's functionalities.
-     * @param classroomService, studentRepository
+     * Here I am injecting the classroomService, studentRepository, classroomRepository,
+     * attendanceProjection, entityCacheService, fullNameCache, attendanceWriteBehind,
+     * attendanceHistory and transactionTemplate in this class in order to have access to all it's
+     * functionalities.
+     * @param classroomService, studentRepository, classroomRepository, attendanceProjection,
+     *        entityCacheService, fullNameCache, attendanceWriteBehind, attendanceHistory,
+     *        transactionTemplate
      */
-    public StudentService(ClassroomService classroomService, StudentRepository studentRepository)
+    public StudentService(ClassroomService classroomService, StudentRepository studentRepository,
+                          ClassroomRepository classroomRepository, AttendanceProjection attendanceProjection,
+                          EntityCacheService entityCacheService, FullNameCache fullNameCache,
+                          AttendanceWriteBehind attendanceWriteBehind, AttendanceHistory attendanceHistory,
+                          TransactionTemplate transactionTemplate)
     {
         this.classroomService = classroomService;
         this.studentRepository = studentRepository;
+        this.classroomRepository = classroomRepository;
+        this.attendanceProjection = attendanceProjection;
+        this.entityCacheService = entityCacheService;
+        this.fullNameCache = fullNameCache;
+        this.attendanceWriteBehind = attendanceWriteBehind;
+        this.attendanceHistory = attendanceHistory;
+        this.transactionTemplate = transactionTemplate;
     }
 
     /**
-     * Changing the status of the student to "IN_CLASS", then saving the updated student.
+     * Changing the status of the student to "IN_CLASS". Only the status column of the student
+     * with the same id is updated, the other properties of the student object are ignored.
      *
      * @param student object
-     * @return updated student
+     * @return updated student or throws a student not found exception if there's no student
+     *         with the same id in the database.
      */
     public Student attendClass(Student student)
     {
         classroomService.attendClass(student);
-        studentRepository.save(student);
+        saveStatus(student);
 
         return student;
     }
 
     /**
-     * Changing the status of the student to "NOT_IN_CLASS", then saving the updated student.
+     * Changing the status of the student to "NOT_IN_CLASS". Only the status column of the student
+     * with the same id is updated, the other properties of the student object are ignored.
      *
      * @param student object
-     * @return updated student
+     * @return updated student or throws a student not found exception if there's no student
+     *         with the same id in the database.
      */
     public Student leaveClass(Student student)
     {
         classroomService.leaveClass(student);
-        studentRepository.save(student);
+        saveStatus(student);
 
         return student;
     }
 
     /**
-     * Delete the student with the matching id from the database
+     * A single "update student set status = ? where id = ?" instead of saving the whole student,
+     * which would read the student first and then update every column.
+     *
+     * In write behind mode the change is only handed to attendanceWriteBehind, no database
+     * connection is used and a student that does not exist is only skipped when the change is
+     * written. The attendance event is added when the change is written, with the time the
+     * change was accepted.
+     *
+     * @param student object with the new status
+     */
+    private void saveStatus(Student student)
+    {
+        Long id = student.getId();
+        if(id == null)
+        {
+            throw new StudentNotFoundException("Student with id: " + id + " not found");
+        }
+        if(attendanceWriteBehind.isEnabled())
+        {
+            attendanceWriteBehind.accept(id, student.getStatus());
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(transaction -> {
+            if(studentRepository.updateStatusById(id, student.getStatus()) == 0)
+            {
+                throw new StudentNotFoundException("Student with id: " + id + " not found");
+            }
+
+            attendanceProjection.statusChanged(id, student.getStatus());
+            attendanceHistory.record(Collections.singletonList(id), student.getStatus());
+            entityCacheService.evictStudents(Collections.singletonList(id));
+        });
+    }
+
+    /**
+     * Changing the status of many students at once.
+     *
+     * @param ids of the students
+     * @param status IN_CLASS or NOT_IN_CLASS
+     * @return number of students that were found
+     */
+    public int updateAttendance(List<Long> ids, Status status)
+    {
+        return classroomService.updateStatus(ids, status);
+    }
+
+    /**
+     * Delete the student with the matching id from the database. The student is taken out of it's
+     * classroom and deleted with one statement each, without being read first.
      *
      * @param id Long
      */
     @Transactional
     public void unregister(Long id)
     {
-        studentRepository.deleteStudentById(id);
+        classroomRepository.removeStudentFromAllClassrooms(id);
+        if(studentRepository.deleteStudentById(id) > 0)
+        {
+            attendanceProjection.removed(id);
+        }
+        fullNameCache.evictStudent(id);
+        entityCacheService.evictStudents(Collections.singletonList(id));
+    }
+
+    /**
+     * Deletes many students at once (for example at the end of the year), with two statements per
+     * DELETE_CHUNK_SIZE ids: one that takes them out of their classrooms and one that deletes
+     * them. Their attendance history is kept.
+     *
+     * @param ids of the students
+     * @return number of students that were found and deleted
+     */
+    @Transactional
+    public int unregister(List<Long> ids)
+    {
+        int deleted = 0;
+        for(List<Long> chunk : Paging.chunks(ids, DELETE_CHUNK_SIZE))
+        {
+            classroomRepository.removeStudentsFromAllClassrooms(chunk);
+            int removed = studentRepository.deleteByIdIn(chunk);
+            deleted += removed;
+
+            attendanceProjection.removed(chunk, removed);
+            fullNameCache.evictStudents(chunk);
+            entityCacheService.evictStudents(chunk);
+        }
+
+        return deleted;
     }
 }
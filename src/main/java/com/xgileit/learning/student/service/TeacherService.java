@@ -1,10 +1,13 @@
 package com.xgileit.learning.student.service;
 
+import com.xgileit.learning.student.enums.Status;
 import com.xgileit.learning.student.model.Student;
 import com.xgileit.learning.student.repo.StudentRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This is the Service class. Here I am implementing all the business logic of this application.
@@ -34,6 +37,26 @@ public class TeacherService {
         return studentRepository.findAll();
     }
 
+    /**
+     * @param page zero based page number
+     * @param size number of students per page (capped at Paging.MAX_PAGE_SIZE)
+     * @return page of students ordered by id
+     */
+    public List<Student> getStudentsPage(int page, int size)
+    {
+        return studentRepository.findAllBy(Paging.of(page, size)).getContent();
+    }
+
+    /**
+     * @param afterId id of the last student the client has already received
+     * @param size number of students to return (capped at Paging.MAX_PAGE_SIZE)
+     * @return students with an id greater than afterId, ordered by id
+     */
+    public List<Student> getStudentsAfter(Long afterId, int size)
+    {
+        return studentRepository.findByIdGreaterThanOrderByIdAsc(afterId, Paging.first(size));
+    }
+
     /**
      * @return list of students attending class
      */
@@ -42,6 +65,16 @@ public class TeacherService {
         return classroomService.studentsAttendingClass();
     }
 
+    /**
+     * @param page zero based page number
+     * @param size number of students per page
+     * @return page of students attending class
+     */
+    public List<Student> attendingClass(int page, int size)
+    {
+        return classroomService.studentsAttendingClass(page, size);
+    }
+
     /**
      * @return list of students not attending class
      */
@@ -49,4 +82,52 @@ public class TeacherService {
     {
         return classroomService.studentsNotAttendingClass();
     }
+
+    /**
+     * @param page zero based page number
+     * @param size number of students per page
+     * @return page of students not attending class
+     */
+    public List<Student> notAttendingClass(int page, int size)
+    {
+        return classroomService.studentsNotAttendingClass(page, size);
+    }
+
+    /**
+     * @return ids of the students attending class
+     */
+    public Set<Long> idsAttendingClass()
+    {
+        return classroomService.idsOfStudentsAttendingClass();
+    }
+
+    /**
+     * @return number of students attending and not attending class
+     */
+    public Map<Status, Long> attendanceCounts()
+    {
+        return classroomService.attendanceCounts();
+    }
+
+    /**
+     * Marks every student in the classroom as attending class.
+     *
+     * @param classroomId id of the classroom
+     * @return number of students in the classroom
+     */
+    public int startClass(Long classroomId)
+    {
+        return classroomService.startClass(classroomId);
+    }
+
+    /**
+     * Marks every student in the classroom as not attending class.
+     *
+     * @param classroomId id of the classroom
+     * @return number of students in the classroom
+     */
+    public int endClass(Long classroomId)
+    {
+        return classroomService.endClass(classroomId);
+    }
 }
@@ -0,0 +1,21 @@
+-- Moves the studentCode and employeeCode columns of an existing MySQL database from their text
+-- form (VARCHAR(255)) to 16 bytes (see CodeConverter). spring.jpa.hibernate.ddl-auto=update does
+-- not change the type of existing columns, so run this once before starting the new version.
+
+ALTER TABLE student ADD COLUMN student_code_bin BINARY(16);
+UPDATE student SET student_code_bin = UUID_TO_BIN(student_code) WHERE student_code IS NOT NULL;
+ALTER TABLE student DROP COLUMN student_code;
+ALTER TABLE student RENAME COLUMN student_code_bin TO student_code;
+CREATE UNIQUE INDEX uk_student_code ON student (student_code);
+
+ALTER TABLE teacher ADD COLUMN employee_code_bin BINARY(16);
+UPDATE teacher SET employee_code_bin = UUID_TO_BIN(employee_code) WHERE employee_code IS NOT NULL;
+ALTER TABLE teacher DROP COLUMN employee_code;
+ALTER TABLE teacher RENAME COLUMN employee_code_bin TO employee_code;
+CREATE UNIQUE INDEX uk_teacher_employee_code ON teacher (employee_code);
+
+ALTER TABLE admin ADD COLUMN employee_code_bin BINARY(16);
+UPDATE admin SET employee_code_bin = UUID_TO_BIN(employee_code) WHERE employee_code IS NOT NULL;
+ALTER TABLE admin DROP COLUMN employee_code;
+ALTER TABLE admin RENAME COLUMN employee_code_bin TO employee_code;
+CREATE UNIQUE INDEX uk_admin_employee_code ON admin (employee_code);
@@ -0,0 +1,35 @@
+-- Moves the students, teachers, admins and classrooms of an existing MySQL database from the shared
+-- hibernate_sequence to their own id sequences (see PooledSequenceGenerator). Run this once, with
+-- the application stopped, before starting the new version, otherwise the new sequences start at 1
+-- and hand out ids that are already in use.
+--
+-- MySQL has no sequences, so every sequence is a table with one row. The row holds the first id of
+-- the next allocation ("pooled-lo"), so it is set to the highest id in use plus one. A database
+-- that already used these tables with the older "pooled" optimizer (where the row held the last id
+-- of an allocation) is moved over by the same statements, attendance_event_seq included.
+
+CREATE TABLE IF NOT EXISTS student_seq (next_val BIGINT);
+DELETE FROM student_seq;
+INSERT INTO student_seq SELECT COALESCE(MAX(id), 0) + 1 FROM student;
+-- archived students keep their ids (see StudentArchiveService). Only on a database that already
+-- has the student_archive table, skip this statement otherwise.
+UPDATE student_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 1 FROM student_archive));
+
+CREATE TABLE IF NOT EXISTS teacher_seq (next_val BIGINT);
+DELETE FROM teacher_seq;
+INSERT INTO teacher_seq SELECT COALESCE(MAX(id), 0) + 1 FROM teacher;
+
+CREATE TABLE IF NOT EXISTS admin_seq (next_val BIGINT);
+DELETE FROM admin_seq;
+INSERT INTO admin_seq SELECT COALESCE(MAX(id), 0) + 1 FROM admin;
+
+CREATE TABLE IF NOT EXISTS classroom_seq (next_val BIGINT);
+DELETE FROM classroom_seq;
+INSERT INTO classroom_seq SELECT COALESCE(MAX(id), 0) + 1 FROM classroom;
+
+CREATE TABLE IF NOT EXISTS attendance_event_seq (next_val BIGINT);
+DELETE FROM attendance_event_seq;
+INSERT INTO attendance_event_seq SELECT COALESCE(MAX(id), 0) + 1 FROM attendance_event;
+
+-- no longer used by any entity.
+DROP TABLE IF EXISTS hibernate_sequence;
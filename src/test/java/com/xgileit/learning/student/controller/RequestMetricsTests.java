@@ -0,0 +1,89 @@
+package com.xgileit.learning.student.controller;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//metrics are only exported (to /actuator/prometheus) in tests with AutoConfigureMetrics.
+@SpringBootTest(properties = "query-count.header.enabled=true")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class RequestMetricsTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void requestsAreTimedByEndpoint() throws Exception {
+		mockMvc.perform(get("/api/v1/teacher/all?page=0")).andExpect(status().isOk());
+
+		Timer timer = meterRegistry.get("http.server.requests")
+				.tag("uri", "/api/v1/teacher/all")
+				.tag("status", "200")
+				.timer();
+		assertTrue(timer.count() >= 1);
+		assertTrue(timer.takeSnapshot().histogramCounts().length > 0);
+	}
+
+	@Test
+	void errorsAreCountedByExceptionType() {
+		assertThrows(Exception.class, () -> mockMvc.perform(put("/api/v1/student/attendClass")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"id\": -1}")));
+
+		assertTrue(meterRegistry.get("http.server.requests")
+				.tag("uri", "/api/v1/student/attendClass")
+				.tag("exception", "StudentNotFoundException")
+				.timer().count() >= 1);
+	}
+
+	@Test
+	void repositoryMethodsAreTimed() throws Exception {
+		mockMvc.perform(get("/api/v1/teacher/all?page=0")).andExpect(status().isOk());
+
+		assertTrue(meterRegistry.get("spring.data.repository.invocations")
+				.tag("repository", "StudentRepository")
+				.tag("method", "findAllBy")
+				.timer().count() >= 1);
+	}
+
+	@Test
+	void statementsAreCountedByEndpoint() throws Exception {
+		mockMvc.perform(get("/api/v1/teacher/all?page=0"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("X-Query-Count", "1"));
+
+		DistributionSummary queries = meterRegistry.get("http.server.requests.queries")
+				.tag("uri", "/api/v1/teacher/all")
+				.summary();
+		assertTrue(queries.count() >= 1);
+		assertEquals(1.0, queries.max());
+	}
+
+	@Test
+	void metricsCanBeScraped() throws Exception {
+		mockMvc.perform(get("/api/v1/teacher/all?page=0")).andExpect(status().isOk());
+
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("http_server_requests_seconds_bucket")));
+	}
+
+}
@@ -0,0 +1,101 @@
+package com.xgileit.learning.student.controller;
+
+import com.xgileit.learning.student.exception.InvalidRequestException;
+import com.xgileit.learning.student.repo.StudentRepository;
+import com.xgileit.learning.student.service.AdminService;
+import com.xgileit.learning.student.service.StudentArchiveService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Request bodies that are missing a required value are answered with 400 Bad Request instead of
+ * failing inside the services.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class RequestValidationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private AdminService adminService;
+	@Autowired
+	private StudentArchiveService studentArchiveService;
+	@Autowired
+	private StudentRepository studentRepository;
+
+	@Test
+	void attendanceUpdateNeedsIdsAndStatus() throws Exception {
+		mockMvc.perform(put("/api/v1/student/attendance")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"status\": \"IN_CLASS\"}"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(put("/api/v1/student/attendance")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"ids\": [1, 2]}"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(put("/api/v1/student/attendance")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"ids\": [], \"status\": \"IN_CLASS\"}"))
+				.andExpect(status().isOk())
+				.andExpect(content().string("0"));
+	}
+
+	@Test
+	void codeMustBeAUuid() throws Exception {
+		mockMvc.perform(put("/api/v1/admin/update/student")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\": \"John\", \"surname\": \"Doe\", \"studentCode\": \"not-a-code\"}"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(put("/api/v1/admin/update/teacher")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\": \"Jane\", \"surname\": \"Doe\", \"employeeCode\": \"not-a-code\"}"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void bulkRequestsNeedIds() throws Exception {
+		mockMvc.perform(put("/api/v1/archive/graduate").contentType(MediaType.APPLICATION_JSON).content("null"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(delete("/api/v1/student/unregister").contentType(MediaType.APPLICATION_JSON).content("null"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(delete("/api/v1/admin/delete/teachers").contentType(MediaType.APPLICATION_JSON).content("null"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(delete("/api/v1/admin/delete/admins").contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+		//called without going through a controller.
+		assertThrows(InvalidRequestException.class, () -> studentArchiveService.graduateStudents(null));
+		assertThrows(InvalidRequestException.class, () -> adminService.deleteTeachers(null));
+	}
+
+	@Test
+	void importedStudentsMustBeNew() throws Exception {
+		long students = studentRepository.count();
+		String student = "{\"name\": \"John\", \"surname\": \"Doe\"}";
+		String withId = "{\"id\": 1, \"name\": \"Jane\", \"surname\": \"Doe\"}";
+
+		mockMvc.perform(post("/api/v1/admin/register/students")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[" + student + ", " + withId + "]"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(post("/api/v1/admin/register/students")
+				.contentType("application/x-ndjson")
+				.content(student + "\n" + withId + "\n"))
+				.andExpect(status().isBadRequest());
+
+		//the whole import is turned away.
+		assertEquals(students, studentRepository.count());
+	}
+}
@@ -0,0 +1,93 @@
+package com.xgileit.learning.student.model;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.MySQL8Dialect;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The allocation size can be changed between two runs of the application without handing out an
+ * id twice. The sequence is a table here, as on MySQL (H2 runs in MySQL mode with the MySQL
+ * dialect).
+ */
+class AllocationSizeTests {
+
+	private static final String URL = "jdbc:h2:mem:allocationsize;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+	@Test
+	void raisingTheAllocationSizeDoesNotReuseIds() {
+		Set<Long> ids = new HashSet<>();
+		try(SessionFactory first = sessionFactory(50, "create")) {
+			ids.addAll(save(first, 3));
+		}
+		//the next run of the application, with a bigger allocation size.
+		try(SessionFactory second = sessionFactory(100, "none")) {
+			List<Long> saved = save(second, 3);
+			saved.forEach(id -> assertTrue(ids.add(id), "id " + id + " was handed out twice"));
+		}
+		//and back to a smaller one.
+		try(SessionFactory third = sessionFactory(20, "none")) {
+			List<Long> saved = save(third, 3);
+			saved.forEach(id -> assertTrue(ids.add(id), "id " + id + " was handed out twice"));
+		}
+	}
+
+	private static List<Long> save(SessionFactory sessionFactory, int count) {
+		List<Long> ids = new ArrayList<>();
+		try(Session session = sessionFactory.openSession()) {
+			session.beginTransaction();
+			for(int i = 0; i < count; i++) {
+				Row row = new Row();
+				session.persist(row);
+				ids.add(row.getId());
+			}
+			session.getTransaction().commit();
+		}
+		return ids;
+	}
+
+	private static SessionFactory sessionFactory(int allocationSize, String schema) {
+		return new MetadataSources(new StandardServiceRegistryBuilder()
+				.applySetting(AvailableSettings.URL, URL)
+				.applySetting(AvailableSettings.USER, "sa")
+				.applySetting(AvailableSettings.PASS, "")
+				.applySetting(AvailableSettings.DIALECT, MySQL8Dialect.class.getName())
+				.applySetting(AvailableSettings.HBM2DDL_AUTO, schema)
+				.applySetting(PooledSequenceGenerator.ALLOCATION_SIZE, String.valueOf(allocationSize))
+				.build())
+				.addAnnotatedClass(Row.class)
+				.buildMetadata()
+				.buildSessionFactory();
+	}
+
+	@Entity
+	@Table(name = "allocation_row")
+	public static class Row {
+
+		@Id
+		@GeneratedValue(generator = "allocation_row_seq")
+		@GenericGenerator(name = "allocation_row_seq", strategy = "com.xgileit.learning.student.model.PooledSequenceGenerator",
+				parameters = @Parameter(name = "sequence_name", value = "allocation_row_seq"))
+		private Long id;
+
+		public Long getId() {
+			return id;
+		}
+	}
+}
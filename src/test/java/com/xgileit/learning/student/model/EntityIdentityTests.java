@@ -0,0 +1,135 @@
+package com.xgileit.learning.student.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityIdentityTests {
+
+	@Test
+	void unsavedEntitiesAreOnlyEqualToThemselves() {
+		Student student = student();
+
+		assertEquals(student, student);
+		assertNotEquals(student(), student);
+		assertNotEquals(new Classroom(), new Classroom());
+	}
+
+	@Test
+	void entitiesWithTheSameIdAreEqual() {
+		Student student = withId(student(), 1L);
+		Student changed = withId(student(), 1L);
+		changed.setAddress("2 Other Road");
+
+		assertEquals(student, changed);
+		assertEquals(student.hashCode(), changed.hashCode());
+		assertNotEquals(student, withId(student(), 2L));
+	}
+
+	@Test
+	void entitiesOfDifferentTypesAreNotEqual() {
+		Teacher teacher = withId(new Teacher("Jane", "Doe", "1 Main Road", "jane@school.com", "0821234567"), 1L);
+		Admin admin = withId(new Admin("Jane", "Doe", "1 Main Road", "jane@school.com", "0821234567"), 1L);
+
+		assertNotEquals(teacher, admin);
+		assertNotEquals(admin, teacher);
+	}
+
+	@Test
+	void hashCodeDoesNotChangeWhenTheEntityIsSaved() {
+		Student student = student();
+		Classroom classroom = new Classroom(null, new ArrayList<>());
+		Set<Object> entities = new HashSet<>(List.of(student, classroom));
+
+		withId(student, 1L);
+		withId(classroom, 1L);
+		classroom.getStudent().add(student);
+
+		assertTrue(entities.contains(student));
+		assertTrue(entities.contains(classroom));
+	}
+
+	@Test
+	void classroomIdentityDoesNotReadTheRoster() {
+		Classroom classroom = withId(new Classroom(null, new UnreadableRoster()), 1L);
+		Classroom same = withId(new Classroom(null, new UnreadableRoster()), 1L);
+
+		assertEquals(classroom.hashCode(), same.hashCode());
+		assertEquals(classroom, same);
+		assertTrue(new HashSet<>(List.of(classroom)).contains(same));
+	}
+
+	@Test
+	void classroomHashDoesNotDependOnTheRoster() {
+		Classroom classroom = withId(new Classroom(null, new ArrayList<>()), 1L);
+		int hash = classroom.hashCode();
+
+		classroom.getStudent().add(student());
+		classroom.getStudent().add(student());
+		assertEquals(hash, classroom.hashCode());
+
+		classroom.getStudent().clear();
+		assertEquals(hash, classroom.hashCode());
+		assertEquals(new Classroom().hashCode(), new Classroom(null, List.of(student())).hashCode());
+	}
+
+	@Test
+	void copiesWithDifferentCodesAreTheSameEntity() {
+		Student student = withId(student(), 1L);
+		student.setStudentCode("1c8f7c1e-5a3b-4c6e-9f0d-2b7a4e6d8c90");
+		//sent by a client with only the id, and the same student after it's code was changed.
+		Student sent = withId(student(), 1L);
+		Student changed = withId(student(), 1L);
+		changed.setStudentCode("7e2d4b6a-1f3c-4e5d-8a9b-0c1d2e3f4a5b");
+		Set<Student> students = new HashSet<>(List.of(student));
+
+		assertEquals(student, sent);
+		assertEquals(student.hashCode(), sent.hashCode());
+		assertEquals(student.hashCode(), changed.hashCode());
+		assertTrue(students.contains(sent));
+		assertTrue(students.contains(changed));
+
+		student.setStudentCode(changed.getStudentCode());
+		assertTrue(students.contains(student));
+	}
+
+	private static Student student() {
+		return new Student("John", "Doe", "1 Main Road", "john@school.com", "0821234567");
+	}
+
+	//sets the id the way Hibernate does when the entity is saved.
+	private static <T> T withId(T entity, Long id) {
+		try {
+			Field field = entity.getClass().getDeclaredField("id");
+			field.setAccessible(true);
+			field.set(entity, id);
+		} catch(ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+		return entity;
+	}
+
+	/**
+	 * Fails the test if hashCode or equals look at the students in the classroom.
+	 */
+	private static class UnreadableRoster extends AbstractList<Student> {
+
+		@Override
+		public Student get(int index) {
+			throw new AssertionError("roster was read");
+		}
+
+		@Override
+		public int size() {
+			throw new AssertionError("roster was read");
+		}
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.xgileit.learning.student.model;
+
+import com.xgileit.learning.student.config.QueryCounter;
+import com.xgileit.learning.student.repo.AdminRepository;
+import com.xgileit.learning.student.repo.ClassroomRepository;
+import com.xgileit.learning.student.repo.TeacherRepository;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every entity reserves it's ids from it's own sequence, ALLOCATION_SIZE at a time. The sequences
+ * are created with that increment, so this test uses a database of it's own.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.properties." + PooledSequenceGenerator.ALLOCATION_SIZE + "=" + IdGenerationTests.ALLOCATION_SIZE,
+		"spring.datasource.url=jdbc:h2:mem:idgeneration;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+		"spring.r2dbc.url=r2dbc:h2:mem:///idgeneration;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"})
+class IdGenerationTests {
+
+	static final int ALLOCATION_SIZE = 20;
+	private static final int ROWS = 100;
+
+	@Autowired
+	private TeacherRepository teacherRepository;
+	@Autowired
+	private AdminRepository adminRepository;
+	@Autowired
+	private ClassroomRepository classroomRepository;
+	@Autowired
+	private QueryCounter queryCounter;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@AfterEach
+	void cleanUp() {
+		classroomRepository.deleteAll();
+		teacherRepository.deleteAll();
+		adminRepository.deleteAll();
+	}
+
+	@Test
+	void everyEntityHasItsOwnSequence() {
+		for(Class<?> entity : List.of(Student.class, Teacher.class, Admin.class, Classroom.class, AttendanceEvent.class)) {
+			SequenceStyleGenerator generator = (SequenceStyleGenerator) entityManagerFactory
+					.unwrap(SessionFactoryImplementor.class)
+					.getIdentifierGenerator(entity.getName());
+
+			assertEquals(ALLOCATION_SIZE, generator.getOptimizer().getIncrementSize(), entity.getSimpleName());
+			assertNotEquals("hibernate_sequence", generator.getDatabaseStructure().getName(), entity.getSimpleName());
+		}
+	}
+
+	@Test
+	void idsAreReservedInAllocations() {
+		List<Teacher> teachers = new ArrayList<>();
+		for(int i = 0; i < ROWS; i++) {
+			teachers.add(new Teacher("Teacher" + i, "Surname", "1 Main Road", "teacher" + i + "@school.com", "0821234567"));
+		}
+
+		queryCounter.start();
+		try {
+			teacherRepository.saveAll(teachers);
+		}
+		finally {
+			long statements = queryCounter.stop();
+			//a sequence read per allocation (one more for the first) and a statement per JDBC batch
+			//of 50 inserts, instead of a sequence read per teacher.
+			assertTrue(statements <= ROWS / ALLOCATION_SIZE + 1 + ROWS / 50, "statements: " + statements);
+		}
+
+		//the admins do not use up the teacher ids.
+		Admin admin = adminRepository.save(new Admin("Admin", "Surname", "1 Main Road", "admin@school.com", "0821234567"));
+		Teacher teacher = teacherRepository.save(new Teacher("Teacher", "Surname", "1 Main Road", "teacher@school.com", "0821234567"));
+		assertEquals(teachers.get(ROWS - 1).getId() + 1, teacher.getId());
+		assertNotNull(admin.getId());
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.repo.AttendanceEventRepository;
+import com.xgileit.learning.student.repo.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AttendanceHistoryTests {
+
+	@Autowired
+	private StudentService studentService;
+	@Autowired
+	private ClassroomService classroomService;
+	@Autowired
+	private ExportService exportService;
+	@Autowired
+	private StudentRepository studentRepository;
+	@Autowired
+	private AttendanceEventRepository attendanceEventRepository;
+
+	@AfterEach
+	void cleanUp() {
+		attendanceEventRepository.deleteAllInBatch();
+		studentRepository.deleteAll();
+	}
+
+	@Test
+	void everyStatusChangeIsAnEvent() throws IOException {
+		Student student = save();
+		Instant before = Instant.now();
+
+		studentService.attendClass(student);
+		studentService.leaveClass(student);
+
+		String[] lines = export(student.getId(), before, Instant.now().plusSeconds(1));
+		assertEquals(2, lines.length);
+		assertTrue(lines[0].contains("\"status\":\"IN_CLASS\""));
+		assertTrue(lines[1].contains("\"status\":\"NOT_IN_CLASS\""));
+	}
+
+	@Test
+	void bulkUpdateAddsAnEventPerStudent() throws IOException {
+		Student first = save();
+		Student second = save();
+		Instant before = Instant.now();
+
+		classroomService.updateStatus(List.of(first.getId(), second.getId(), -1L), Status.IN_CLASS);
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		exportService.exportAttendance(before, Instant.now().plusSeconds(1), output);
+		assertEquals(2, output.toString(StandardCharsets.UTF_8).lines().count());
+	}
+
+	@Test
+	void eventsOutsideTheRangeAreNotReturned() throws IOException {
+		Student student = save();
+		studentService.attendClass(student);
+		Instant after = Instant.now().plusSeconds(1);
+
+		assertEquals(0, export(student.getId(), after, after.plusSeconds(60)).length);
+	}
+
+	private Student save() {
+		return studentRepository.save(new Student("John", "Doe", "1 Main Road", "john@school.com", "0821234567"));
+	}
+
+	private String[] export(Long studentId, Instant from, Instant to) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		exportService.exportAttendance(studentId, from, to, output);
+		return output.toString(StandardCharsets.UTF_8).lines().toArray(String[]::new);
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.repo.StudentRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AttendanceProjectionTests {
+
+	private final StudentRepository studentRepository = mock(StudentRepository.class);
+	private final AttendanceProjection projection = new AttendanceProjection(studentRepository);
+
+	@Test
+	void changesMadeWhileReloadingAreKept() {
+		when(studentRepository.findIdsByStatus(Status.IN_CLASS)).thenAnswer(invocation -> {
+			//the database has already been read when these changes are made.
+			projection.statusChanged(3L, Status.IN_CLASS);
+			projection.statusChanged(1L, Status.NOT_IN_CLASS);
+			projection.registered(4L);
+			return List.of(1L, 2L);
+		});
+		when(studentRepository.count()).thenReturn(3L);
+
+		projection.rebuild();
+
+		assertEquals(Set.of(2L, 3L), projection.studentsInClass());
+		assertEquals(2, projection.count(Status.IN_CLASS));
+		assertEquals(2, projection.count(Status.NOT_IN_CLASS));
+	}
+
+	@Test
+	void reconcileReplacesADifferentSetOfTheSameSize() {
+		when(studentRepository.findIdsByStatus(Status.IN_CLASS)).thenReturn(List.of(1L));
+		when(studentRepository.count()).thenReturn(2L);
+		projection.rebuild();
+
+		//student 1 left and student 2 entered class without the projection being told.
+		when(studentRepository.findIdsByStatus(Status.IN_CLASS)).thenReturn(List.of(2L));
+		projection.reconcile();
+
+		assertEquals(Set.of(2L), projection.studentsInClass());
+		assertEquals(1, projection.count(Status.NOT_IN_CLASS));
+	}
+}
@@ -0,0 +1,143 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.repo.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.xgileit.learning.student.service.TestEntities.students;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The attendance projection only changes once the database change has been committed, a rolled
+ * back change leaves the counts as they were.
+ */
+@SpringBootTest
+class AttendanceProjectionTransactionTests {
+
+	private static final int ROWS = 4;
+
+	@Autowired
+	private AdminService adminService;
+	@Autowired
+	private StudentService studentService;
+	@Autowired
+	private StudentArchiveService studentArchiveService;
+	@Autowired
+	private AttendanceProjection attendanceProjection;
+	@Autowired
+	private StudentRepository studentRepository;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private Map<Status, Long> counts;
+
+	@BeforeEach
+	void setUp() {
+		adminService.registerStudents(students(ROWS));
+		attendanceProjection.rebuild();
+		counts = attendanceProjection.counts();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		studentRepository.deleteAll();
+		attendanceProjection.rebuild();
+	}
+
+	@Test
+	void failedImportIsNotCounted() {
+		Iterator<Student> students = students(ROWS).iterator();
+		Iterator<Student> failing = new Iterator<>() {
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public Student next() {
+				if(!students.hasNext()) {
+					throw new IllegalArgumentException("unreadable line");
+				}
+				return students.next();
+			}
+		};
+
+		assertThrows(IllegalArgumentException.class, () -> adminService.registerStudents(failing));
+
+		assertEquals(ROWS, studentRepository.count());
+		assertEquals(counts, attendanceProjection.counts());
+	}
+
+	@Test
+	void importIsCountedOnceCommitted() {
+		assertEquals(ROWS, adminService.registerStudents(students(ROWS).iterator()));
+
+		assertEquals(2 * ROWS, attendanceProjection.count(Status.NOT_IN_CLASS));
+	}
+
+	@Test
+	void rolledBackRegistrationIsNotCounted() {
+		transactionTemplate.execute(status -> {
+			adminService.registerStudents(students(ROWS));
+			status.setRollbackOnly();
+			return null;
+		});
+
+		assertEquals(counts, attendanceProjection.counts());
+	}
+
+	@Test
+	void rolledBackStatusUpdateIsNotApplied() {
+		List<Long> ids = studentRepository.findAll().stream().map(Student::getId).collect(Collectors.toList());
+
+		transactionTemplate.execute(status -> {
+			studentService.updateAttendance(ids, Status.IN_CLASS);
+			status.setRollbackOnly();
+			return null;
+		});
+		assertEquals(counts, attendanceProjection.counts());
+
+		studentService.updateAttendance(ids, Status.IN_CLASS);
+		assertEquals(ROWS, attendanceProjection.count(Status.IN_CLASS));
+	}
+
+	@Test
+	void rolledBackUnregistrationIsNotApplied() {
+		List<Long> ids = studentRepository.findAll().stream().map(Student::getId).collect(Collectors.toList());
+
+		transactionTemplate.execute(status -> {
+			studentService.unregister(ids);
+			status.setRollbackOnly();
+			return null;
+		});
+
+		assertEquals(counts, attendanceProjection.counts());
+		assertEquals(ROWS, studentRepository.count());
+	}
+
+	@Test
+	void rolledBackGraduationIsNotApplied() {
+		List<Long> ids = studentRepository.findAll().stream().map(Student::getId).collect(Collectors.toList());
+
+		transactionTemplate.execute(status -> {
+			studentArchiveService.graduateStudents(ids);
+			status.setRollbackOnly();
+			return null;
+		});
+
+		assertEquals(counts, attendanceProjection.counts());
+		assertEquals(ROWS, studentRepository.count());
+	}
+
+}
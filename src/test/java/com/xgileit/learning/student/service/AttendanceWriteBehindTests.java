@@ -0,0 +1,151 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.exception.AttendanceQueueFullException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AttendanceWriteBehindTests {
+
+	@TempDir
+	Path directory;
+
+	private final ClassroomService classroomService = mock(ClassroomService.class);
+	private AttendanceWriteBehind writeBehind;
+
+	@AfterEach
+	void close() throws IOException {
+		if(writeBehind != null) {
+			writeBehind.close();
+		}
+	}
+
+	@Test
+	void latestStatusOfAStudentIsWritten() {
+		writeBehind = create(10, 100);
+
+		writeBehind.accept(1L, Status.IN_CLASS);
+		writeBehind.accept(1L, Status.NOT_IN_CLASS);
+		writeBehind.accept(2L, Status.IN_CLASS);
+		writeBehind.flush();
+
+		verify(classroomService).writeAttendance(eq(Map.of(1L, Status.NOT_IN_CLASS, 2L, Status.IN_CLASS)),
+				argThat(events -> events.size() == 3));
+		verifyNoMoreInteractions(classroomService);
+		assertEquals(0, writeBehind.pending());
+	}
+
+	@Test
+	void newStudentsAreTurnedAwayWhenFull() {
+		writeBehind = create(2, 100);
+		writeBehind.accept(1L, Status.IN_CLASS);
+		writeBehind.accept(2L, Status.IN_CLASS);
+
+		assertThrows(AttendanceQueueFullException.class, () -> writeBehind.accept(3L, Status.IN_CLASS));
+		//a student that is already waiting does not take more room.
+		writeBehind.accept(2L, Status.NOT_IN_CLASS);
+
+		writeBehind.flush();
+		writeBehind.accept(3L, Status.IN_CLASS);
+		assertEquals(1, writeBehind.pending());
+	}
+
+	@Test
+	void batchSizeStartsAFlush() {
+		writeBehind = create(10, 2);
+
+		writeBehind.accept(1L, Status.IN_CLASS);
+		writeBehind.accept(2L, Status.IN_CLASS);
+
+		verify(classroomService, timeout(5000)).writeAttendance(anyMap(), anyCollection());
+	}
+
+	@Test
+	void acceptedChangesSurviveARestart() throws IOException {
+		AttendanceWriteBehind crashed = create(10, 100);
+		crashed.accept(1L, Status.IN_CLASS);
+		crashed.accept(2L, Status.IN_CLASS);
+		crashed.accept(1L, Status.NOT_IN_CLASS);
+		//a crash while the log was being written leaves half a line behind.
+		Files.writeString(directory.resolve("attendance.log"), "3 IN_CL", StandardOpenOption.APPEND);
+
+		writeBehind = create(10, 100);
+		assertEquals(2, writeBehind.pending());
+		writeBehind.flush();
+
+		verify(classroomService).writeAttendance(eq(Map.of(1L, Status.NOT_IN_CLASS, 2L, Status.IN_CLASS)),
+				argThat(events -> events.size() == 3));
+	}
+
+	@Test
+	void acceptTimesSurviveARestart() throws IOException {
+		//a change put back after a failed flush is logged after the newer change of the student.
+		Files.writeString(directory.resolve("attendance.log"),
+				"1 IN_CLASS 2021-09-01T08:05:00Z\n1 NOT_IN_CLASS 2021-09-01T08:00:00Z\n");
+
+		writeBehind = create(10, 100);
+		writeBehind.flush();
+
+		verify(classroomService).writeAttendance(eq(Map.of(1L, Status.IN_CLASS)), argThat(events ->
+				events.stream().map(event -> event.getOccurredAt().toString()).collect(Collectors.toSet())
+						.equals(Set.of("2021-09-01T08:05:00Z", "2021-09-01T08:00:00Z"))));
+	}
+
+	@Test
+	void changesAreKeptWhenTheDatabaseFails() throws IOException {
+		writeBehind = create(10, 100);
+		when(classroomService.writeAttendance(anyMap(), anyCollection()))
+				.thenThrow(new IllegalStateException("database is down"))
+				.thenReturn(1);
+
+		writeBehind.accept(1L, Status.IN_CLASS);
+		writeBehind.flush();
+		assertEquals(1, writeBehind.pending());
+
+		//the failed change is in the new log, so it also survives a restart.
+		assertTrue(Files.readString(directory.resolve("attendance.log")).startsWith("1 IN_CLASS "));
+		assertFalse(Files.exists(directory.resolve("attendance.log.flushing")));
+
+		writeBehind.flush();
+		assertEquals(0, writeBehind.pending());
+	}
+
+	@Test
+	void concurrentChangesAreAllLogged() throws IOException {
+		writeBehind = create(1000, 1000);
+
+		//the forces are shared between the threads, every change is still in the log once accepted.
+		CompletableFuture.allOf(LongStream.rangeClosed(1, 200)
+				.mapToObj(id -> CompletableFuture.runAsync(() -> writeBehind.accept(id, Status.IN_CLASS)))
+				.toArray(CompletableFuture[]::new)).join();
+
+		assertEquals(200, writeBehind.pending());
+		assertEquals(LongStream.rangeClosed(1, 200).boxed().collect(Collectors.toSet()),
+				Files.readAllLines(directory.resolve("attendance.log")).stream()
+						.map(line -> Long.valueOf(line.split(" ")[0])).collect(Collectors.toSet()));
+	}
+
+	private AttendanceWriteBehind create(int capacity, int batchSize) {
+		return new AttendanceWriteBehind(classroomService, true, capacity, batchSize,
+				directory.resolve("attendance.log"), true);
+	}
+
+}
@@ -0,0 +1,194 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.exception.ClassroomNotFoundException;
+import com.xgileit.learning.student.model.Classroom;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.model.Teacher;
+import com.xgileit.learning.student.repo.ClassroomRepository;
+import com.xgileit.learning.student.repo.StudentRepository;
+import com.xgileit.learning.student.repo.TeacherRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.xgileit.learning.student.service.TestEntities.students;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the statements sent to the database while classrooms are read and changed, the count must
+ * not grow with the number of classrooms or the number of students in a classroom.
+ */
+@SpringBootTest
+class ClassroomServiceTests {
+
+	private static final int STUDENTS_PER_CLASSROOM = 3;
+
+	@Autowired
+	private ClassroomService classroomService;
+	@Autowired
+	private ClassroomRepository classroomRepository;
+	@Autowired
+	private TeacherRepository teacherRepository;
+	@Autowired
+	private StudentRepository studentRepository;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@AfterEach
+	void cleanUp() {
+		classroomRepository.deleteAll();
+		teacherRepository.deleteAll();
+		studentRepository.deleteAll();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10, 40})
+	void pageOfClassroomsTakesTwoStatements(int classrooms) {
+		createClassrooms(classrooms);
+
+		List<Classroom> page = countStatements(2, () -> classroomService.getClassroomsPage(0, 50));
+
+		assertEquals(classrooms, page.size());
+		//the transaction is over, so reading a teacher or roster that was not fetched would fail.
+		page.forEach(ClassroomServiceTests::assertFetched);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10, 40})
+	void classroomsAfterIdTakeTwoStatements(int classrooms) {
+		createClassrooms(classrooms);
+
+		List<Classroom> page = countStatements(2, () -> classroomService.getClassroomsAfter(0L, 50));
+
+		assertEquals(classrooms, page.size());
+		page.forEach(ClassroomServiceTests::assertFetched);
+	}
+
+	@Test
+	void classroomTakesOneStatement() {
+		Long id = createClassrooms(1).get(0).getId();
+
+		Classroom classroom = countStatements(1, () -> classroomService.getClassroom(id));
+
+		assertFetched(classroom);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 10, 40})
+	void lazyTeachersAndRostersAreReadInBatches(int classrooms) {
+		createClassrooms(classrooms);
+
+		//one statement for the classrooms, one for the teachers and one for the rosters.
+		countStatements(3, () -> transactionTemplate.execute(status -> {
+			List<Classroom> all = classroomRepository.findAll();
+			all.forEach(ClassroomServiceTests::assertFetched);
+			return all;
+		}));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {3, 300})
+	void addingAndRemovingAStudentDoesNotReadTheRoster(int rosterSize) {
+		Classroom classroom = classroomRepository.save(new Classroom(null, studentRepository.saveAll(students(rosterSize))));
+		Long studentId = studentRepository.save(students(1).get(0)).getId();
+
+		//the classroom and student are checked, the student is taken out of other classrooms and added.
+		countStatements(4, () -> {
+			classroomService.addStudent(classroom.getId(), studentId);
+			return null;
+		});
+		assertEquals(rosterSize + 1, studentRepository.findIdsByClassroomId(classroom.getId()).size());
+
+		assertTrue(countStatements(2, () -> classroomService.removeStudent(classroom.getId(), studentId)));
+		assertEquals(rosterSize, studentRepository.findIdsByClassroomId(classroom.getId()).size());
+		assertFalse(classroomService.removeStudent(classroom.getId(), studentId));
+	}
+
+	@Test
+	void studentIsMovedToTheNewClassroom() {
+		Classroom first = createClassrooms(1).get(0);
+		Classroom second = classroomService.createClassroom(null);
+		Long studentId = first.getStudent().get(0).getId();
+
+		classroomService.addStudent(second.getId(), studentId);
+
+		assertEquals(STUDENTS_PER_CLASSROOM - 1, studentRepository.findIdsByClassroomId(first.getId()).size());
+		assertEquals(List.of(studentId), studentRepository.findIdsByClassroomId(second.getId()));
+	}
+
+	@Test
+	void teacherIsMovedToTheNewClassroom() {
+		Classroom first = createClassrooms(1).get(0);
+		Long teacherId = first.getTeacher().getId();
+		Classroom second = classroomService.createClassroom(null);
+
+		classroomService.assignTeacher(second.getId(), teacherId);
+
+		assertNull(classroomService.getClassroom(first.getId()).getTeacher());
+		assertEquals(teacherId, classroomService.getClassroom(second.getId()).getTeacher().getId());
+	}
+
+	@Test
+	void rosterIsPagedById() {
+		Classroom classroom = classroomRepository.save(new Classroom(null, studentRepository.saveAll(students(5))));
+		List<Long> ids = studentRepository.findIdsByClassroomId(classroom.getId());
+		ids.sort(null);
+
+		List<Student> secondPage = classroomService.getRoster(classroom.getId(), 1, 2);
+
+		assertEquals(ids.subList(2, 4), List.of(secondPage.get(0).getId(), secondPage.get(1).getId()));
+	}
+
+	@Test
+	void missingClassroomIsNotFound() {
+		ClassroomNotFoundException exception = assertThrows(ClassroomNotFoundException.class,
+				() -> classroomService.getClassroom(-1L));
+		assertEquals("Classroom with id: -1 not found", exception.getMessage());
+	}
+
+	private List<Classroom> createClassrooms(int count) {
+		List<Classroom> classrooms = new ArrayList<>();
+		for(int i = 0; i < count; i++) {
+			Teacher teacher = teacherRepository.save(new Teacher("Teacher" + i, "Surname", "1 Main Road",
+					"teacher" + i + "@school.com", "0821234567"));
+			classrooms.add(new Classroom(teacher, studentRepository.saveAll(students(STUDENTS_PER_CLASSROOM))));
+		}
+
+		return classroomRepository.saveAll(classrooms);
+	}
+
+	/**
+	 * The second level cache is emptied first, so cached teachers and students cannot hide
+	 * statements.
+	 */
+	private <T> T countStatements(long expected, Supplier<T> action) {
+		entityManagerFactory.getCache().evictAll();
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		T result = action.get();
+
+		assertEquals(expected, statistics.getPrepareStatementCount());
+		return result;
+	}
+
+	private static void assertFetched(Classroom classroom) {
+		assertNotNull(classroom.getTeacher().getName());
+		assertEquals(STUDENTS_PER_CLASSROOM, classroom.getStudent().size());
+		classroom.getStudent().forEach(student -> assertNotNull(student.getName()));
+	}
+
+}
@@ -0,0 +1,144 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.config.QueryCounter;
+import com.xgileit.learning.student.exception.AdminNotFoundException;
+import com.xgileit.learning.student.exception.InvalidRequestException;
+import com.xgileit.learning.student.exception.StudentNotFoundException;
+import com.xgileit.learning.student.exception.TeacherNotFoundException;
+import com.xgileit.learning.student.model.Admin;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.model.Teacher;
+import com.xgileit.learning.student.repo.AdminRepository;
+import com.xgileit.learning.student.repo.StudentRepository;
+import com.xgileit.learning.student.repo.TeacherRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.UUID;
+
+import static com.xgileit.learning.student.service.QueryCountAssertions.assertMaxQueries;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Students, teachers and admins are found by the code on their badge with at most one indexed
+ * lookup, and without going to the database once the code has been looked up before.
+ */
+@SpringBootTest
+class CodeLookupTests {
+
+	@Autowired
+	private AdminService adminService;
+	@Autowired
+	private StudentRepository studentRepository;
+	@Autowired
+	private TeacherRepository teacherRepository;
+	@Autowired
+	private AdminRepository adminRepository;
+	@Autowired
+	private QueryCounter queryCounter;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@AfterEach
+	void cleanUp() {
+		teacherRepository.deleteAll();
+		adminRepository.deleteAll();
+		studentRepository.deleteAll();
+	}
+
+	@Test
+	void studentIsFoundByCode() {
+		Student student = adminService.registerStudent(new Student("Student", "Surname", "1 Main Road",
+				"student@school.com", "0821234567"));
+		entityManagerFactory.getCache().evictAll();
+
+		Student found = assertMaxQueries(queryCounter, 1, () -> adminService.findStudentByCode(student.getStudentCode()));
+		assertEquals(student.getId(), found.getId());
+		assertEquals(student.getStudentCode(), found.getStudentCode());
+
+		//the id comes from the code cache and the student from the second level cache.
+		Student again = assertMaxQueries(queryCounter, 0,
+				() -> adminService.findStudentByCode(student.getStudentCode().toUpperCase()));
+		assertEquals(student.getId(), again.getId());
+	}
+
+	@Test
+	void staffIsFoundByCode() {
+		Teacher teacher = adminService.employTeacher(new Teacher("Teacher", "Surname", "1 Main Road",
+				"teacher@school.com", "0821234567"));
+		Admin admin = adminService.employAdmin(new Admin("Admin", "Surname", "1 Main Road",
+				"admin@school.com", "0821234567"));
+
+		assertEquals(teacher.getId(), adminService.findTeacherByCode(teacher.getEmployeeCode()).getId());
+		assertEquals(admin.getId(), adminService.findAdminByCode(admin.getEmployeeCode()).getId());
+	}
+
+	@Test
+	void changedCodeIsNotServedFromTheCache() {
+		Student student = adminService.registerStudent(new Student("Student", "Surname", "1 Main Road",
+				"student@school.com", "0821234567"));
+		String oldCode = student.getStudentCode();
+		adminService.findStudentByCode(oldCode);
+
+		student.setStudentCode(UUID.randomUUID().toString());
+		adminService.updateStudent(student);
+
+		assertThrows(StudentNotFoundException.class, () -> adminService.findStudentByCode(oldCode));
+		assertEquals(student.getId(), adminService.findStudentByCode(student.getStudentCode()).getId());
+	}
+
+	@Test
+	void updatedCodeMustBeAUuid() {
+		Student student = adminService.registerStudent(new Student("Student", "Surname", "1 Main Road",
+				"student@school.com", "0821234567"));
+		String code = student.getStudentCode();
+
+		student.setStudentCode("not-a-code");
+		assertThrows(InvalidRequestException.class, () -> adminService.updateStudent(student));
+		assertEquals(code, adminService.findStudent(student.getId()).getStudentCode());
+
+		//stored the way the database gives it back.
+		student.setStudentCode(code.toUpperCase());
+		assertEquals(code, adminService.updateStudent(student).getStudentCode());
+	}
+
+	@Test
+	void unknownCodesAreNotFound() {
+		assertThrows(StudentNotFoundException.class, () -> adminService.findStudentByCode(UUID.randomUUID().toString()));
+		assertThrows(TeacherNotFoundException.class, () -> adminService.findTeacherByCode("not-a-code"));
+		assertThrows(AdminNotFoundException.class, () -> adminService.findAdminByCode(""));
+	}
+
+	@Test
+	void codesAreUnique() {
+		Student student = adminService.registerStudent(new Student("Student", "Surname", "1 Main Road",
+				"student@school.com", "0821234567"));
+		Student copy = new Student("Copy", "Surname", "1 Main Road", "copy@school.com", "0821234567");
+		copy.setStudentCode(student.getStudentCode());
+
+		assertThrows(DataIntegrityViolationException.class, () -> studentRepository.save(copy));
+	}
+
+	@Test
+	void codesAreStoredInSixteenBytes() {
+		adminService.registerStudent(new Student("Student", "Surname", "1 Main Road",
+				"student@school.com", "0821234567"));
+
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		try {
+			byte[] code = (byte[]) entityManager
+					.createNativeQuery("select student_code from student")
+					.getSingleResult();
+			assertEquals(16, code.length);
+		}
+		finally {
+			entityManager.close();
+		}
+	}
+
+}
@@ -0,0 +1,188 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.config.QueryCounter;
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.exception.TeacherNotFoundException;
+import com.xgileit.learning.student.model.Admin;
+import com.xgileit.learning.student.model.Classroom;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.model.Teacher;
+import com.xgileit.learning.student.repo.AdminRepository;
+import com.xgileit.learning.student.repo.ClassroomRepository;
+import com.xgileit.learning.student.repo.StudentRepository;
+import com.xgileit.learning.student.repo.TeacherRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static com.xgileit.learning.student.service.QueryCountAssertions.assertMaxQueries;
+import static com.xgileit.learning.student.service.TestEntities.students;
+import static com.xgileit.learning.student.service.TestEntities.teachers;
+import static com.xgileit.learning.student.service.TestEntities.admins;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Deleting students, teachers and admins by id. The deletes are single statements, so the rows that
+ * point to them (the rosters and the teachers of the classrooms) have to be cleaned up first and the
+ * deleted rows have to be taken out of the second level cache by hand.
+ */
+@SpringBootTest
+class DeletionTests {
+
+	private static final int ROWS = 10;
+
+	@Autowired
+	private AdminService adminService;
+	@Autowired
+	private StudentService studentService;
+	@Autowired
+	private ClassroomService classroomService;
+	@Autowired
+	private AttendanceProjection attendanceProjection;
+	@Autowired
+	private StudentRepository studentRepository;
+	@Autowired
+	private TeacherRepository teacherRepository;
+	@Autowired
+	private AdminRepository adminRepository;
+	@Autowired
+	private ClassroomRepository classroomRepository;
+	@Autowired
+	private QueryCounter queryCounter;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private List<Long> studentIds;
+	private List<Long> teacherIds;
+	private Classroom classroom;
+
+	@BeforeEach
+	void setUp() {
+		List<Student> students = studentRepository.saveAll(students(ROWS));
+		studentIds = students.stream().map(Student::getId).collect(Collectors.toList());
+		List<Teacher> teachers = teacherRepository.saveAll(teachers(ROWS));
+		teacherIds = teachers.stream().map(Teacher::getId).collect(Collectors.toList());
+		classroom = classroomRepository.save(new Classroom(teachers.get(0), students.subList(0, ROWS / 2)));
+		attendanceProjection.rebuild();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		classroomRepository.deleteAll();
+		teacherRepository.deleteAll();
+		adminRepository.deleteAll();
+		studentRepository.deleteAll();
+		attendanceProjection.rebuild();
+	}
+
+	@Test
+	void studentInClassroomIsUnregistered() {
+		Long id = studentIds.get(0);
+		//loads the student and the classroom in the second level cache.
+		adminService.findStudent(id);
+		classroomService.getClassroom(classroom.getId());
+
+		assertMaxQueries(queryCounter, 2, () -> studentService.unregister(id));
+
+		assertFalse(studentRepository.existsById(id));
+		assertFalse(studentRepository.findStudentById(id).isPresent());
+		assertEquals(ROWS / 2 - 1, studentRepository.findIdsByClassroomId(classroom.getId()).size());
+		assertEquals(ROWS - 1, attendanceProjection.count(Status.NOT_IN_CLASS));
+	}
+
+	@Test
+	void studentsAreUnregisteredInBulk() {
+		studentService.updateAttendance(studentIds.subList(0, 2), Status.IN_CLASS);
+		studentIds.forEach(adminService::findStudent);
+
+		List<Long> ids = new ArrayList<>(studentIds.subList(0, ROWS / 2 + 1));
+		//unknown, repeated and null ids are skipped.
+		ids.addAll(Arrays.asList(-1L, studentIds.get(0), null));
+
+		assertEquals(ROWS / 2 + 1, assertMaxQueries(queryCounter, 2, () -> studentService.unregister(ids)));
+
+		assertEquals(ROWS - ROWS / 2 - 1, studentRepository.count());
+		assertTrue(studentRepository.findIdsByClassroomId(classroom.getId()).isEmpty());
+		ids.subList(0, ROWS / 2 + 1).forEach(id -> assertFalse(studentRepository.findStudentById(id).isPresent()));
+		assertEquals(0, attendanceProjection.count(Status.IN_CLASS));
+		assertEquals(ROWS - ROWS / 2 - 1, attendanceProjection.count(Status.NOT_IN_CLASS));
+	}
+
+	@Test
+	void teacherOfClassroomIsDeleted() {
+		Long id = teacherIds.get(0);
+		classroomService.getClassroom(classroom.getId());
+
+		assertMaxQueries(queryCounter, 2, () -> adminService.deleteTeacher(id));
+
+		assertFalse(teacherRepository.existsById(id));
+		assertFalse(teacherRepository.findTeacherById(id).isPresent());
+		assertNull(classroomService.getClassroom(classroom.getId()).getTeacher());
+		assertEquals(ROWS / 2, studentRepository.findIdsByClassroomId(classroom.getId()).size());
+	}
+
+	@Test
+	void nameReadBeforeCommitIsNotKept() {
+		Long id = teacherIds.get(1);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			adminService.deleteTeacher(id);
+			//another request still sees (and caches) the teacher until the delete is committed.
+			assertEquals("Teacher1 Surname", CompletableFuture.supplyAsync(() -> adminService.getTeacherFullName(id)).join());
+		});
+
+		assertThrows(TeacherNotFoundException.class, () -> adminService.getTeacherFullName(id));
+	}
+
+	@Test
+	void namesOfNullIdsAreLeftOut() {
+		List<Long> ids = new ArrayList<>(studentIds.subList(0, 2));
+		ids.add(null);
+
+		assertEquals(2, adminService.getStudentFullNames(ids).size());
+	}
+
+	@Test
+	void teachersAreDeletedInBulk() {
+		List<Long> ids = new ArrayList<>(teacherIds.subList(0, 3));
+		ids.add(-1L);
+
+		assertEquals(3, assertMaxQueries(queryCounter, 2, () -> adminService.deleteTeachers(ids)));
+
+		assertEquals(ROWS - 3, teacherRepository.count());
+		assertNull(classroomService.getClassroom(classroom.getId()).getTeacher());
+	}
+
+	@Test
+	void adminsAreDeleted() {
+		List<Long> ids = adminRepository.saveAll(admins(3)).stream().map(Admin::getId).collect(Collectors.toList());
+		entityManagerFactory.getCache().evictAll();
+		ids.forEach(adminService::findAdmin);
+
+		assertMaxQueries(queryCounter, 1, () -> adminService.deleteAdmin(ids.get(0)));
+		assertEquals(2, assertMaxQueries(queryCounter, 1, () -> adminService.deleteAdmins(ids)));
+
+		assertEquals(0, adminRepository.count());
+		ids.forEach(id -> assertFalse(adminRepository.findAdminById(id).isPresent()));
+	}
+
+	@Test
+	void emptyListDeletesNothing() {
+		assertEquals(0, assertMaxQueries(queryCounter, 0, () -> studentService.unregister(new ArrayList<>())));
+		assertEquals(0, assertMaxQueries(queryCounter, 0, () -> adminService.deleteTeachers(new ArrayList<>())));
+		assertEquals(0, assertMaxQueries(queryCounter, 0, () -> adminService.deleteAdmins(new ArrayList<>())));
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.config.QueryCounter;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fails a test when an action sends more SQL statements to the database than it is allowed to,
+ * e.g. when a change turns a page of students into one query per student.
+ */
+final class QueryCountAssertions {
+
+	private QueryCountAssertions() {
+	}
+
+	static <T> T assertMaxQueries(QueryCounter queryCounter, long max, Supplier<T> action) {
+		queryCounter.start();
+		try {
+			T result = action.get();
+
+			long count = queryCounter.count();
+			assertTrue(count <= max, () -> "Expected at most " + max + " statements, but " + count + " were sent");
+			return result;
+		}
+		finally {
+			queryCounter.stop();
+		}
+	}
+
+	static void assertMaxQueries(QueryCounter queryCounter, long max, Runnable action) {
+		assertMaxQueries(queryCounter, max, () -> {
+			action.run();
+			return null;
+		});
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.model.Classroom;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.repo.ClassroomRepository;
+import com.xgileit.learning.student.repo.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The students are saved with JPA and read back with R2DBC from the same in memory database.
+ */
+@SpringBootTest
+class ReactiveRosterServiceTests {
+
+	@Autowired
+	private ReactiveRosterService reactiveRosterService;
+	@Autowired
+	private StudentRepository studentRepository;
+	@Autowired
+	private ClassroomRepository classroomRepository;
+	@Autowired
+	private ClassroomService classroomService;
+
+	@AfterEach
+	void cleanUp() {
+		classroomRepository.deleteAll();
+		studentRepository.deleteAll();
+	}
+
+	@Test
+	void studentsAreReadWithTheirStatus() {
+		List<Student> students = save(3);
+		classroomService.updateStatus(List.of(students.get(1).getId()), Status.IN_CLASS);
+
+		StepVerifier.create(reactiveRosterService.students(Status.IN_CLASS))
+				.assertNext(student -> {
+					assertEquals(students.get(1).getId(), student.getId());
+					assertEquals(Status.IN_CLASS, student.getStatus());
+					assertEquals("Student1 Surname", student.getFullName());
+					assertEquals(students.get(1).getStudentCode(), student.getStudentCode());
+				})
+				.verifyComplete();
+		StepVerifier.create(reactiveRosterService.students(null))
+				.expectNextCount(3)
+				.verifyComplete();
+	}
+
+	@Test
+	void rowsAreOnlyReadWhenAskedFor() {
+		save(100);
+
+		StepVerifier.create(reactiveRosterService.students(null), 10)
+				.expectNextCount(10)
+				.thenRequest(90)
+				.expectNextCount(90)
+				.verifyComplete();
+	}
+
+	@Test
+	void rosterOfAClassroom() {
+		List<Student> students = save(5);
+		Classroom classroom = classroomRepository.save(new Classroom(null, new ArrayList<>(students.subList(0, 2))));
+
+		//ordered by id. The ids of one save are not always ascending here, another test context can
+		//recreate the shared sequence while this one still has ids of an older allocation left.
+		Long first = students.get(0).getId();
+		Long second = students.get(1).getId();
+		StepVerifier.create(reactiveRosterService.roster(classroom.getId()).map(Student::getId))
+				.expectNext(Math.min(first, second), Math.max(first, second))
+				.verifyComplete();
+	}
+
+	private List<Student> save(int count) {
+		List<Student> students = new ArrayList<>();
+		for(int i = 0; i < count; i++) {
+			Student student = new Student("Student" + i, "Surname", "1 Main Road", "student" + i + "@school.com", "0821234567");
+			student.setStatus(Status.NOT_IN_CLASS);
+			student.setStudentCode(UUID.randomUUID().toString());
+			students.add(student);
+		}
+
+		return studentRepository.saveAll(students);
+	}
+
+}
@@ -0,0 +1,164 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.config.QueryCounter;
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.model.Classroom;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.model.Teacher;
+import com.xgileit.learning.student.repo.AdminRepository;
+import com.xgileit.learning.student.repo.AttendanceEventRepository;
+import com.xgileit.learning.student.repo.ClassroomRepository;
+import com.xgileit.learning.student.repo.StudentRepository;
+import com.xgileit.learning.student.repo.TeacherRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.xgileit.learning.student.service.QueryCountAssertions.assertMaxQueries;
+import static com.xgileit.learning.student.service.TestEntities.students;
+import static com.xgileit.learning.student.service.TestEntities.teachers;
+import static com.xgileit.learning.student.service.TestEntities.admins;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The most statements every service method may send to the database. The limits do not depend on
+ * the number of rows, so a method that starts sending a statement per row fails here. The second
+ * level cache is emptied before every method, so the limits are the worst case.
+ */
+@SpringBootTest
+class ServiceQueryCountTests {
+
+	private static final int ROWS = 20;
+
+	@Autowired
+	private AdminService adminService;
+	@Autowired
+	private TeacherService teacherService;
+	@Autowired
+	private StudentService studentService;
+	@Autowired
+	private ClassroomService classroomService;
+	@Autowired
+	private StudentRepository studentRepository;
+	@Autowired
+	private TeacherRepository teacherRepository;
+	@Autowired
+	private AdminRepository adminRepository;
+	@Autowired
+	private ClassroomRepository classroomRepository;
+	@Autowired
+	private AttendanceEventRepository attendanceEventRepository;
+	@Autowired
+	private QueryCounter queryCounter;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private List<Long> studentIds;
+	private Classroom classroom;
+
+	@BeforeEach
+	void setUp() {
+		List<Student> students = studentRepository.saveAll(students(ROWS));
+		studentIds = students.stream().map(Student::getId).collect(Collectors.toList());
+		List<Teacher> teachers = teacherRepository.saveAll(teachers(ROWS));
+		adminRepository.saveAll(admins(ROWS));
+		classroom = classroomRepository.save(new Classroom(teachers.get(0), students.subList(0, ROWS / 2)));
+		entityManagerFactory.getCache().evictAll();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		classroomRepository.deleteAll();
+		attendanceEventRepository.deleteAll();
+		teacherRepository.deleteAll();
+		adminRepository.deleteAll();
+		studentRepository.deleteAll();
+	}
+
+	@Test
+	void adminServiceReads() {
+		assertEquals(ROWS, assertMaxQueries(queryCounter, 1, () -> adminService.getTeachersPage(0, 50)).size());
+		assertEquals(ROWS, assertMaxQueries(queryCounter, 1, () -> adminService.getTeachersAfter(0L, 50)).size());
+		assertEquals(ROWS, assertMaxQueries(queryCounter, 1, () -> adminService.getAdminsPage(0, 50)).size());
+		assertEquals(ROWS, assertMaxQueries(queryCounter, 1, () -> adminService.getAdminsAfter(0L, 50)).size());
+		assertMaxQueries(queryCounter, 1, () -> adminService.findStudent(studentIds.get(0)));
+		assertMaxQueries(queryCounter, 1, () -> adminService.getStudentFullName(studentIds.get(1)));
+		assertEquals(ROWS, assertMaxQueries(queryCounter, 1, () -> adminService.getStudentFullNames(studentIds)).size());
+	}
+
+	@Test
+	void adminServiceWrites() {
+		//one statement to reserve the ids and one per JDBC batch of inserts.
+		assertMaxQueries(queryCounter, 2, () -> adminService.registerStudents(students(ROWS)));
+		assertMaxQueries(queryCounter, 2, () -> adminService.registerStudent(students(1).get(0)));
+		assertMaxQueries(queryCounter, 2, () -> adminService.employTeacher(teachers(1).get(0)));
+		assertMaxQueries(queryCounter, 2, () -> adminService.employAdmin(admins(1).get(0)));
+
+		Student student = adminService.findStudent(studentIds.get(0));
+		student.setName("Renamed");
+		assertMaxQueries(queryCounter, 2, () -> adminService.updateStudent(student));
+
+		Teacher teacher = adminService.employTeacher(teachers(1).get(0));
+		assertMaxQueries(queryCounter, 2, () -> adminService.deleteTeacher(teacher.getId()));
+
+		List<Long> teacherIds = teacherRepository.findAll().stream().map(Teacher::getId).collect(Collectors.toList());
+		assertEquals(teacherIds.size(), assertMaxQueries(queryCounter, 2, () -> adminService.deleteTeachers(teacherIds)));
+	}
+
+	@Test
+	void teacherServiceReads() {
+		assertEquals(ROWS, assertMaxQueries(queryCounter, 1, () -> teacherService.getStudentsPage(0, 50)).size());
+		assertEquals(ROWS, assertMaxQueries(queryCounter, 1, () -> teacherService.getStudentsAfter(0L, 50)).size());
+		assertMaxQueries(queryCounter, 1, () -> teacherService.attendingClass(0, 50));
+		assertMaxQueries(queryCounter, 1, () -> teacherService.notAttendingClass(0, 50));
+		assertMaxQueries(queryCounter, 0, () -> teacherService.idsAttendingClass());
+		assertMaxQueries(queryCounter, 0, () -> teacherService.attendanceCounts());
+	}
+
+	@Test
+	void teacherServiceWrites() {
+		//the roster ids, the update, the sequence for the events (read twice the first time ids are
+		//reserved) and the batch of events.
+		assertEquals(ROWS / 2, assertMaxQueries(queryCounter, 5, () -> teacherService.startClass(classroom.getId())));
+		assertEquals(ROWS / 2, assertMaxQueries(queryCounter, 5, () -> teacherService.endClass(classroom.getId())));
+	}
+
+	@Test
+	void studentServiceWrites() {
+		Student student = studentRepository.findById(studentIds.get(0)).orElseThrow();
+
+		//the update, the sequence for the event (read twice the first time) and the event.
+		assertEquals(Status.IN_CLASS, assertMaxQueries(queryCounter, 4, () -> studentService.attendClass(student)).getStatus());
+		assertEquals(Status.NOT_IN_CLASS, assertMaxQueries(queryCounter, 3, () -> studentService.leaveClass(student)).getStatus());
+		assertEquals(ROWS, assertMaxQueries(queryCounter, 3, () -> studentService.updateAttendance(studentIds, Status.IN_CLASS)));
+
+		Long unregistered = studentIds.get(ROWS - 1);
+		assertMaxQueries(queryCounter, 2, () -> studentService.unregister(unregistered));
+		assertEquals(2, assertMaxQueries(queryCounter, 2, () -> studentService.unregister(studentIds.subList(0, 2))));
+	}
+
+	@Test
+	void classroomServiceReads() {
+		assertMaxQueries(queryCounter, 1, () -> classroomService.getClassroom(classroom.getId()));
+		assertMaxQueries(queryCounter, 2, () -> classroomService.getClassroomsPage(0, 50));
+		assertMaxQueries(queryCounter, 2, () -> classroomService.getClassroomsAfter(0L, 50));
+		assertEquals(ROWS / 2, assertMaxQueries(queryCounter, 2, () -> classroomService.getRoster(classroom.getId(), 0, 50)).size());
+		assertMaxQueries(queryCounter, 1, () -> classroomService.studentsNotAttendingClass());
+	}
+
+	@Test
+	void classroomServiceWrites() {
+		Long studentId = studentIds.get(ROWS - 1);
+
+		assertMaxQueries(queryCounter, 4, () -> classroomService.addStudent(classroom.getId(), studentId));
+		assertMaxQueries(queryCounter, 2, () -> classroomService.removeStudent(classroom.getId(), studentId));
+		assertMaxQueries(queryCounter, 2, () -> classroomService.createClassroom(null));
+	}
+
+}
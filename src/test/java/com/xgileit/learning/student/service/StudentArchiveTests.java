@@ -0,0 +1,151 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.config.QueryCounter;
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.exception.StudentNotFoundException;
+import com.xgileit.learning.student.model.ArchivedStudent;
+import com.xgileit.learning.student.model.AttendanceEvent;
+import com.xgileit.learning.student.model.Classroom;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.repo.ArchivedStudentRepository;
+import com.xgileit.learning.student.repo.AttendanceEventRepository;
+import com.xgileit.learning.student.repo.ClassroomRepository;
+import com.xgileit.learning.student.repo.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.xgileit.learning.student.service.QueryCountAssertions.assertMaxQueries;
+import static com.xgileit.learning.student.service.TestEntities.students;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Graduated students disappear from the student queries straight away and are moved to the
+ * archive in batches (of 3 students here), where they can still be found.
+ */
+@SpringBootTest(properties = "students.archive.batch-size=3")
+class StudentArchiveTests {
+
+	private static final int ROWS = 10;
+
+	@Autowired
+	private StudentArchiveService studentArchiveService;
+	@Autowired
+	private AdminService adminService;
+	@Autowired
+	private StudentService studentService;
+	@Autowired
+	private AttendanceProjection attendanceProjection;
+	@Autowired
+	private StudentRepository studentRepository;
+	@Autowired
+	private ClassroomRepository classroomRepository;
+	@Autowired
+	private ArchivedStudentRepository archivedStudentRepository;
+	@Autowired
+	private AttendanceEventRepository attendanceEventRepository;
+	@Autowired
+	private QueryCounter queryCounter;
+
+	private List<Student> students;
+	private List<Long> studentIds;
+	private Classroom classroom;
+
+	@BeforeEach
+	void setUp() {
+		students = adminService.registerStudents(students(ROWS));
+		studentIds = students.stream().map(Student::getId).collect(Collectors.toList());
+		classroom = classroomRepository.save(new Classroom(null, studentRepository.findAllById(studentIds.subList(0, 4))));
+		studentService.updateAttendance(studentIds.subList(0, 2), Status.IN_CLASS);
+		attendanceProjection.rebuild();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		classroomRepository.deleteAll();
+		//deleteAll only sees the active students, the graduated ones are moved out first.
+		studentArchiveService.archive(Instant.now().plus(1, ChronoUnit.DAYS));
+		archivedStudentRepository.deleteAll();
+		attendanceEventRepository.deleteAll();
+		studentRepository.deleteAll();
+		attendanceProjection.rebuild();
+	}
+
+	@Test
+	void graduatedStudentsAreLeftOutOfQueries() {
+		List<Long> graduated = studentIds.subList(0, 5);
+		//loads the students in the second level cache.
+		graduated.forEach(adminService::findStudent);
+
+		assertEquals(5, assertMaxQueries(queryCounter, 2, () -> studentArchiveService.graduateStudents(graduated)));
+		//already graduated students are skipped.
+		assertEquals(0, studentArchiveService.graduateStudents(graduated));
+
+		assertEquals(ROWS - 5, studentRepository.count());
+		assertEquals(ROWS - 5, studentRepository.findAll().size());
+		graduated.forEach(id -> assertThrows(StudentNotFoundException.class, () -> adminService.findStudent(id)));
+		assertThrows(StudentNotFoundException.class, () -> adminService.findStudentByCode(students.get(0).getStudentCode()));
+		assertThrows(StudentNotFoundException.class, () -> adminService.getStudentFullName(graduated.get(0)));
+		assertTrue(studentRepository.findIdsByClassroomId(classroom.getId()).isEmpty());
+		assertTrue(studentRepository.findByStatus(Status.IN_CLASS).isEmpty());
+
+		//the status of a graduated student is no longer changed.
+		assertEquals(0, studentService.updateAttendance(graduated, Status.IN_CLASS));
+		assertEquals(0, attendanceProjection.count(Status.IN_CLASS));
+		assertEquals(ROWS - 5, attendanceProjection.count(Status.NOT_IN_CLASS));
+	}
+
+	@Test
+	void graduatesAreMovedToTheArchiveInBatches() {
+		List<Long> graduated = studentIds.subList(0, 7);
+		studentArchiveService.graduateStudents(graduated);
+
+		//not graduated for long enough.
+		assertEquals(0, studentArchiveService.archive(Instant.now().minus(1, ChronoUnit.HOURS)));
+
+		//3 batches of at most 3 students, each one reads the ids, copies and deletes them.
+		assertEquals(7, assertMaxQueries(queryCounter, 9, () -> studentArchiveService.archive(Instant.now().plusSeconds(1))));
+		assertEquals(0, studentArchiveService.archive(Instant.now().plusSeconds(1)));
+
+		assertEquals(7, archivedStudentRepository.count());
+		assertEquals(ROWS - 7, studentRepository.count());
+		//the attendance history is kept under the same id.
+		assertTrue(attendanceEventRepository.findAll().stream().map(AttendanceEvent::getStudentId)
+				.anyMatch(graduated.get(0)::equals));
+	}
+
+	@Test
+	void archiveIsQueried() {
+		List<Long> graduated = studentIds.subList(0, 4);
+		Instant before = Instant.now().minusSeconds(1);
+		studentArchiveService.graduateStudents(graduated);
+		studentArchiveService.archive(Instant.now().plusSeconds(1));
+
+		Student student = students.get(0);
+		ArchivedStudent archived = assertMaxQueries(queryCounter, 1, () -> studentArchiveService.findArchivedStudent(student.getId()));
+		assertEquals(student.getName(), archived.getName());
+		assertEquals(student.getStudentCode(), archived.getStudentCode());
+		assertNotNull(archived.getGraduatedAt());
+		assertNotNull(archived.getArchivedAt());
+
+		assertEquals(student.getId(), studentArchiveService.findArchivedStudentByCode(student.getStudentCode()).getId());
+		assertThrows(StudentNotFoundException.class, () -> studentArchiveService.findArchivedStudentByCode("not-a-code"));
+		assertThrows(StudentNotFoundException.class, () -> studentArchiveService.findArchivedStudent(studentIds.get(ROWS - 1)));
+
+		List<ArchivedStudent> firstPage = studentArchiveService.getArchivedStudentsAfter(0L, 3);
+		assertEquals(graduated.subList(0, 3), firstPage.stream().map(ArchivedStudent::getId).collect(Collectors.toList()));
+		assertEquals(graduated.subList(3, 4), studentArchiveService.getArchivedStudentsAfter(firstPage.get(2).getId(), 3)
+				.stream().map(ArchivedStudent::getId).collect(Collectors.toList()));
+
+		assertEquals(4, studentArchiveService.getArchivedStudentsGraduated(before, Instant.now(), 0, 50).size());
+		assertTrue(studentArchiveService.getArchivedStudentsGraduated(Instant.EPOCH, before, 0, 50).isEmpty());
+	}
+
+}
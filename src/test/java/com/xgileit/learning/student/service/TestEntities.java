@@ -0,0 +1,49 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.model.Admin;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.model.Teacher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * New (not yet saved) students, teachers and admins for the service tests, numbered from 0 in
+ * their name and email.
+ */
+final class TestEntities {
+
+	private TestEntities() {
+	}
+
+	static List<Student> students(int count) {
+		List<Student> students = new ArrayList<>();
+		for(int i = 0; i < count; i++) {
+			students.add(new Student("Student" + i, "Surname", "1 Main Road",
+					"student" + i + "@school.com", "0821234567"));
+		}
+
+		return students;
+	}
+
+	static List<Teacher> teachers(int count) {
+		List<Teacher> teachers = new ArrayList<>();
+		for(int i = 0; i < count; i++) {
+			teachers.add(new Teacher("Teacher" + i, "Surname", "1 Main Road",
+					"teacher" + i + "@school.com", "0821234567"));
+		}
+
+		return teachers;
+	}
+
+	static List<Admin> admins(int count) {
+		List<Admin> admins = new ArrayList<>();
+		for(int i = 0; i < count; i++) {
+			admins.add(new Admin("Admin" + i, "Surname", "1 Main Road",
+					"admin" + i + "@school.com", "0821234567"));
+		}
+
+		return admins;
+	}
+
+}
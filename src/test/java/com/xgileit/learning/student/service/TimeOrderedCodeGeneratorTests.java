@@ -0,0 +1,82 @@
+package com.xgileit.learning.student.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedCodeGeneratorTests {
+
+	private final TimeOrderedCodeGenerator generator = new TimeOrderedCodeGenerator();
+
+	@Test
+	void codesAreVersionSevenUuids() {
+		long before = System.currentTimeMillis();
+		UUID code = UUID.fromString(generator.next());
+
+		assertEquals(7, code.version());
+		assertEquals(2, code.variant());
+		long time = code.getMostSignificantBits() >>> 16;
+		assertTrue(time >= before && time <= System.currentTimeMillis());
+	}
+
+	@Test
+	void codesIncreaseWithinTheSameMillisecond() {
+		UUID previous = generator.nextUuid();
+		//far more than the 4096 codes the counter holds per millisecond.
+		for(int i = 0; i < 100_000; i++) {
+			UUID next = generator.nextUuid();
+			assertTrue(compareUnsigned(previous, next) < 0, previous + " >= " + next);
+			previous = next;
+		}
+	}
+
+	@Test
+	void concurrentCodesAreUniqueAndIncreasePerThread() throws Exception {
+		int threads = 8;
+		int perThread = 20_000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Callable<List<UUID>>> tasks = new ArrayList<>();
+			for(int i = 0; i < threads; i++) {
+				tasks.add(() -> {
+					List<UUID> codes = new ArrayList<>(perThread);
+					for(int j = 0; j < perThread; j++) {
+						codes.add(generator.nextUuid());
+					}
+					return codes;
+				});
+			}
+
+			Set<UUID> all = new HashSet<>();
+			for(Future<List<UUID>> result : executor.invokeAll(tasks)) {
+				List<UUID> codes = result.get();
+				for(int j = 1; j < codes.size(); j++) {
+					assertTrue(compareUnsigned(codes.get(j - 1), codes.get(j)) < 0);
+				}
+				all.addAll(codes);
+			}
+			assertEquals(threads * perThread, all.size());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	//the order of the 16 stored bytes (UUID.compareTo compares signed longs).
+	private static int compareUnsigned(UUID first, UUID second) {
+		int most = Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits());
+
+		return most != 0 ? most : Long.compareUnsigned(first.getLeastSignificantBits(), second.getLeastSignificantBits());
+	}
+
+}
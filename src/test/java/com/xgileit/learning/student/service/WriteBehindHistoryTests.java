@@ -0,0 +1,69 @@
+package com.xgileit.learning.student.service;
+
+import com.xgileit.learning.student.enums.Status;
+import com.xgileit.learning.student.model.AttendanceEvent;
+import com.xgileit.learning.student.model.Student;
+import com.xgileit.learning.student.repo.AttendanceEventRepository;
+import com.xgileit.learning.student.repo.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * With write behind on, the attendance history still gets an event for every check in and check
+ * out, with the time it was accepted instead of the time of the flush.
+ */
+@SpringBootTest(properties = {
+		"attendance.write-behind.enabled=true",
+		"attendance.write-behind.flush-interval=PT1H",
+		"attendance.write-behind.log=target/write-behind-tests/${random.uuid}.log"})
+class WriteBehindHistoryTests {
+
+	@Autowired
+	private StudentService studentService;
+	@Autowired
+	private AttendanceWriteBehind attendanceWriteBehind;
+	@Autowired
+	private StudentRepository studentRepository;
+	@Autowired
+	private AttendanceEventRepository attendanceEventRepository;
+
+	@AfterEach
+	void cleanUp() {
+		attendanceWriteBehind.flush();
+		attendanceEventRepository.deleteAllInBatch();
+		studentRepository.deleteAll();
+	}
+
+	@Test
+	void everyAcceptedChangeIsAnEventWithItsAcceptTime() throws InterruptedException {
+		Student student = studentRepository.save(new Student("John", "Doe", "1 Main Road",
+				"john@school.com", "0821234567"));
+
+		studentService.attendClass(student);
+		studentService.leaveClass(student);
+		studentService.attendClass(student);
+		Instant accepted = Instant.now();
+		Thread.sleep(50);
+
+		attendanceWriteBehind.flush();
+
+		List<AttendanceEvent> events = attendanceEventRepository.findAll().stream()
+				.sorted(Comparator.comparing(AttendanceEvent::getOccurredAt)).collect(Collectors.toList());
+		assertEquals(List.of(Status.IN_CLASS, Status.NOT_IN_CLASS, Status.IN_CLASS),
+				events.stream().map(AttendanceEvent::getStatus).collect(Collectors.toList()));
+		events.forEach(event -> {
+			assertEquals(student.getId(), event.getStudentId());
+			assertFalse(event.getOccurredAt().isAfter(accepted));
+		});
+		assertEquals(Status.IN_CLASS, studentRepository.findById(student.getId()).orElseThrow().getStatus());
+	}
+}